@@ -21,11 +21,17 @@ package dev.architectury.mappingslayers.api;
 
 import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 public interface Mappings {
     String serializeToTiny();
     
+    default void serializeToTiny(Writer writer) throws IOException {
+        writer.write(serializeToTiny());
+    }
+    
     String uuid();
     
     Mappings withTransformations(List<MappingsTransformation> transformations);
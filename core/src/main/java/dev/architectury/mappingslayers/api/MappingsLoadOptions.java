@@ -0,0 +1,306 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api;
+
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.api.utils.StringPool;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Options for loading mappings, instances are immutable and the {@code with} methods return modified copies.
+ * <p>
+ * The entry types, class filter and comments form the load profile, entries which are not loaded are skipped
+ * by the readers before their names are decoded.
+ */
+public final class MappingsLoadOptions {
+    private static final int ALL_TYPES = MappingsUtils.getTypeId(MappingsEntryType.values());
+    private static final int SLIM_TYPES = MappingsUtils.getTypeId(MappingsEntryType.PARAMETER, MappingsEntryType.LOCAL_VARIABLE);
+    private static final MappingsLoadOptions DEFAULTS = new MappingsLoadOptions();
+    
+    private int types = ALL_TYPES;
+    private boolean comments = true;
+    private boolean lazy;
+    private boolean columnar;
+    private boolean offHeap;
+    @Nullable
+    private Path offHeapDirectory;
+    @Nullable
+    private Predicate<String> classFilter;
+    @Nullable
+    private ForkJoinPool pool;
+    @Nullable
+    private StringPool stringPool;
+    @Nullable
+    private List<String> namespaces;
+    
+    private MappingsLoadOptions() {
+    }
+    
+    private MappingsLoadOptions(MappingsLoadOptions other) {
+        this.types = other.types;
+        this.comments = other.comments;
+        this.lazy = other.lazy;
+        this.columnar = other.columnar;
+        this.offHeap = other.offHeap;
+        this.offHeapDirectory = other.offHeapDirectory;
+        this.classFilter = other.classFilter;
+        this.pool = other.pool;
+        this.stringPool = other.stringPool;
+        this.namespaces = other.namespaces;
+    }
+    
+    public static MappingsLoadOptions defaults() {
+        return DEFAULTS;
+    }
+    
+    /**
+     * Returns the options for a slim load, which does not keep parameters, local variables and comments.
+     */
+    public static MappingsLoadOptions slim() {
+        return DEFAULTS.withSlim(true);
+    }
+    
+    public boolean isSlim() {
+        return !comments && (types & SLIM_TYPES) == 0;
+    }
+    
+    public MappingsLoadOptions withSlim(boolean slim) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.types = slim ? types & ~SLIM_TYPES : types | SLIM_TYPES;
+        options.comments = !slim;
+        return options;
+    }
+    
+    /**
+     * Returns the loaded entry types, as a {@linkplain MappingsUtils#getTypeId(MappingsEntryType...) type id}.
+     */
+    public int getTypeId() {
+        return types;
+    }
+    
+    public boolean loads(MappingsEntryType type) {
+        return MappingsUtils.fromTypeId(types).test(type);
+    }
+    
+    /**
+     * Only loads the given entry types, the parents of loaded entries are always loaded.
+     */
+    public MappingsLoadOptions withTypes(MappingsEntryType... types) {
+        return withTypeId(MappingsUtils.getTypeId(types));
+    }
+    
+    /**
+     * Only loads the entry types of a {@linkplain MappingsUtils#getTypeId(MappingsEntryType...) type id},
+     * the parents of loaded entries are always loaded.
+     */
+    public MappingsLoadOptions withTypeId(int types) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.types = types & ALL_TYPES;
+        return options;
+    }
+    
+    public MappingsLoadOptions withLocals(boolean locals) {
+        int local = MappingsUtils.getTypeId(MappingsEntryType.LOCAL_VARIABLE);
+        return withTypeId(locals ? types | local : types & ~local);
+    }
+    
+    public boolean hasComments() {
+        return comments;
+    }
+    
+    public MappingsLoadOptions withComments(boolean comments) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.comments = comments;
+        return options;
+    }
+    
+    /**
+     * Returns the filter of the primary class names to load, {@code null} if every class is loaded.
+     */
+    @Nullable
+    public Predicate<String> getClassFilter() {
+        return classFilter;
+    }
+    
+    /**
+     * Only loads the classes whose name in the loaded primary namespace is accepted by the filter,
+     * the lines of rejected classes are skipped without being tokenized.
+     *
+     * @param classFilter the filter, or {@code null} to load every class
+     */
+    public MappingsLoadOptions withClassFilter(@Nullable Predicate<String> classFilter) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.classFilter = classFilter;
+        return options;
+    }
+    
+    /**
+     * Only loads the classes in a package or its subpackages, in the loaded primary namespace.
+     *
+     * @param packageName the internal name of the package, such as {@code net/minecraft/client}
+     */
+    public MappingsLoadOptions withPackage(String packageName) {
+        String prefix = packageName.endsWith("/") ? packageName : packageName + "/";
+        return withClassFilter(name -> name.startsWith(prefix));
+    }
+    
+    /**
+     * Returns the pool to parse on, {@code null} if the mappings are parsed on the calling thread.
+     */
+    @Nullable
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Parses independent chunks of class blocks on a pool, only supported when loading from bytes.
+     * Mappings are parsed on the calling thread unless a pool is given.
+     *
+     * @param pool the pool to parse on, or {@code null} to parse on the calling thread
+     */
+    public MappingsLoadOptions withPool(@Nullable ForkJoinPool pool) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.pool = pool;
+        return options;
+    }
+    
+    /**
+     * Returns the pool shared between loads, {@code null} if each load uses its own pool.
+     */
+    @Nullable
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+    
+    /**
+     * Shares a pool of names and descriptors between loads, so that multiple resident trees reuse the same strings.
+     *
+     * @param stringPool the pool to share, or {@code null} to use a new pool for each load
+     */
+    public MappingsLoadOptions withStringPool(@Nullable StringPool stringPool) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.stringPool = stringPool;
+        return options;
+    }
+    
+    /**
+     * Returns the pool to use for a load, a new one if none is shared.
+     */
+    public StringPool createStringPool() {
+        return stringPool != null ? stringPool : new StringPool();
+    }
+    
+    /**
+     * Returns the namespaces to keep, {@code null} if every namespace is kept.
+     */
+    @Nullable
+    public List<String> getNamespaces() {
+        return namespaces;
+    }
+    
+    /**
+     * Only keeps the given namespaces, in the given order, the first one becomes the primary namespace.
+     * The names of the other namespaces are not decoded, empty names are resolved against the dropped namespaces.
+     *
+     * @param namespaces the namespaces to keep, or {@code null} to keep every namespace
+     */
+    public MappingsLoadOptions withNamespaces(@Nullable List<String> namespaces) {
+        if (namespaces != null && namespaces.isEmpty()) {
+            throw new IllegalArgumentException("At least one namespace must be kept!");
+        }
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.namespaces = namespaces == null ? null : Collections.unmodifiableList(new ArrayList<>(namespaces));
+        return options;
+    }
+    
+    public MappingsLoadOptions withNamespaces(String... namespaces) {
+        return withNamespaces(Arrays.asList(namespaces));
+    }
+    
+    public boolean isLazy() {
+        return lazy;
+    }
+    
+    /**
+     * Only scans the class lines on load, the members of each class are decoded from the bytes on first access.
+     * Only supported when loading from bytes, the buffer is kept by the tree.
+     */
+    public MappingsLoadOptions withLazy(boolean lazy) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.lazy = lazy;
+        return options;
+    }
+    
+    public boolean isColumnar() {
+        return columnar || offHeap;
+    }
+    
+    /**
+     * Loads into a columnar tree, which keeps the names in a shared string table and the entries in int columns.
+     * Columnar trees are built on the calling thread and are not lazy, local variables are not kept.
+     */
+    public MappingsLoadOptions withColumnar(boolean columnar) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.columnar = columnar;
+        return options;
+    }
+    
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+    
+    @Nullable
+    public Path getOffHeapDirectory() {
+        return offHeapDirectory;
+    }
+    
+    /**
+     * Loads into a columnar tree keeping its entries and names in direct buffers, outside of the heap.
+     * The loaded tree is {@link java.io.Closeable}, closing it drops the buffers but their memory is only given back
+     * once they are garbage collected.
+     */
+    public MappingsLoadOptions withOffHeap(boolean offHeap) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.offHeap = offHeap;
+        options.offHeapDirectory = null;
+        return options;
+    }
+    
+    /**
+     * Loads into a columnar tree keeping its entries and names in a temporary file mapped in memory.
+     * The loaded tree is {@link java.io.Closeable}, closing it deletes the file.
+     *
+     * @param directory the directory of the temporary file
+     */
+    public MappingsLoadOptions withOffHeap(Path directory) {
+        MappingsLoadOptions options = new MappingsLoadOptions(this);
+        options.offHeap = true;
+        options.offHeapDirectory = directory;
+        return options;
+    }
+}
@@ -19,41 +19,70 @@
 
 package dev.architectury.mappingslayers.api;
 
-import com.google.common.hash.Hashing;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.FingerprintIndex;
+import dev.architectury.mappingslayers.impl.mappings.MappingsSource;
+import dev.architectury.mappingslayers.impl.mappings.StreamingTinyMappings;
 import dev.architectury.mappingslayers.impl.mappings.TinyReader;
 import dev.architectury.mappingslayers.impl.mappings.TinyTreeMappings;
 import net.fabricmc.mapping.tree.TinyTree;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.*;
 
 public final class MappingsReaders {
+    private static final String TINY_ENTRY = "mappings/mappings.tiny";
+    private static final int CHUNK_SIZE = 1 << 16;
+    
     private MappingsReaders() {}
     
     public static Mappings readDetection(Path file) {
+        return readDetection(file, null, FingerprintIndex.Hash.SHA512);
+    }
+    
+    /**
+     * Reads mappings from a file, the uuid of the mappings is looked up in {@code index} when the file is unchanged.
+     * <p>
+     * The uuid is the cache key of the mappings. An unchanged file in {@code index} is not read at all and is only
+     * parsed when the mappings are needed, otherwise the file is parsed while it is hashed so it is read once.
+     */
+    public static Mappings readDetection(Path file, @Nullable FingerprintIndex index, FingerprintIndex.Hash hash) {
+        // the tree parsed while hashing, null if the uuid was found in the index
+        MutableTinyTree[] parsed = new MutableTinyTree[1];
         try (FileSystem fs = FileSystems.newFileSystem(file, null)) {
-            Path tinyPath = fs.getPath("mappings/mappings.tiny");
+            Path tinyPath = fs.getPath(TINY_ENTRY);
             if (Files.exists(tinyPath)) {
-                byte[] bytes = Files.readAllBytes(tinyPath);
-                String uuid = Hashing.sha512().hashBytes(bytes).toString();
-                return readTiny(new String(bytes, StandardCharsets.UTF_8), uuid);
+                String uuid = fingerprint(file, index, hash, function -> {
+                    try (InputStream stream = Files.newInputStream(tinyPath)) {
+                        return parseHashing(stream, function, parsed);
+                    }
+                });
+                return parsed[0] != null ? TinyTreeMappings.owning(parsed[0], uuid) : new StreamingTinyMappings(MappingsSource.ofZipEntry(file, TINY_ENTRY), uuid);
             }
             if (Files.exists(fs.getPath("fields.csv")) && Files.exists(fs.getPath("methods.csv"))) {
                 return readMCP(fs);
             }
             throw new IllegalArgumentException("Unknown mappings " + file);
-        } catch (IOException e) {
+        } catch (IOException | ProviderNotFoundException e) {
             try {
-                byte[] bytes = Files.readAllBytes(file);
-                String uuid = Hashing.sha512().hashBytes(bytes).toString();
-                return readTiny(new String(bytes, StandardCharsets.UTF_8), uuid);
+                String uuid = fingerprint(file, index, hash, function -> {
+                    try (InputStream stream = Files.newInputStream(file)) {
+                        return parseHashing(stream, function, parsed);
+                    }
+                });
+                return parsed[0] != null ? TinyTreeMappings.owning(parsed[0], uuid) : new StreamingTinyMappings(MappingsSource.of(file), uuid);
             } catch (IOException ioException) {
                 UncheckedIOException exception = new UncheckedIOException(ioException);
                 exception.addSuppressed(e);
@@ -62,6 +91,13 @@ public final class MappingsReaders {
         }
     }
     
+    private static String fingerprint(Path file, @Nullable FingerprintIndex index, FingerprintIndex.Hash hash, FingerprintIndex.Digester digester) throws IOException {
+        if (index == null) {
+            return hash.format(digester.digest(hash.getFunction()));
+        }
+        return index.fingerprint(file, hash, digester);
+    }
+    
     public static Mappings readMCP(FileSystem fs) {
         throw new UnsupportedOperationException("MCP is not supported yet!");
     }
@@ -78,6 +114,62 @@ public final class MappingsReaders {
         }
     }
     
+    public static Mappings readTiny(ByteBuffer content, String uuid) {
+        return readTiny(content, uuid, MappingsLoadOptions.defaults());
+    }
+    
+    /**
+     * Reads tiny mappings from bytes, the mappings are parsed in parallel if the options have a
+     * {@linkplain MappingsLoadOptions#withPool(java.util.concurrent.ForkJoinPool) pool}.
+     */
+    public static Mappings readTiny(ByteBuffer content, String uuid, MappingsLoadOptions options) {
+        warnLegacy(content);
+        try {
+            return TinyTreeMappings.owning(TinyReader.loadWithDetection(content, options), uuid);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Reads tiny mappings from a stream, the uuid is the SHA-512 of the stream and is computed while it is parsed.
+     * The stream is read to its end but is not closed.
+     */
+    public static Mappings readTiny(InputStream stream) {
+        MutableTinyTree[] parsed = new MutableTinyTree[1];
+        try {
+            HashCode hash = parseHashing(stream, FingerprintIndex.Hash.SHA512.getFunction(), parsed);
+            return TinyTreeMappings.owning(parsed[0], FingerprintIndex.Hash.SHA512.format(hash));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Parses tiny mappings from a stream into {@code parsed} while hashing it, so the stream is only read once.
+     * Trailing bytes the parser did not need are still part of the digest.
+     */
+    private static HashCode parseHashing(InputStream stream, HashFunction function, MutableTinyTree[] parsed) throws IOException {
+        HashingInputStream hashing = new HashingInputStream(function, stream);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(hashing, StandardCharsets.UTF_8), CHUNK_SIZE);
+        reader.mark(2);
+        if (reader.read() == 'v' && reader.read() == '1') {
+            // OH THIS IS GOING TO SUCK
+            System.out.println("Please use a v2 tiny-based mappings file! Field names will not be proposed!");
+        }
+        reader.reset();
+        parsed[0] = TinyReader.loadWithDetection(reader, MappingsLoadOptions.defaults());
+        ByteStreams.exhaust(hashing);
+        return hashing.hash();
+    }
+    
+    private static void warnLegacy(ByteBuffer content) {
+        if (content.remaining() >= 2 && content.get(content.position()) == 'v' && content.get(content.position() + 1) == '1') {
+            // OH THIS IS GOING TO SUCK
+            System.out.println("Please use a v2 tiny-based mappings file! Field names will not be proposed!");
+        }
+    }
+    
     public static Mappings fromTinyTree(TinyTree tinyTree, String uuid) {
         return new TinyTreeMappings(tinyTree, uuid);
     }
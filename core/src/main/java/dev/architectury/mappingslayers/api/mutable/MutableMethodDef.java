@@ -21,6 +21,7 @@ package dev.architectury.mappingslayers.api.mutable;
 
 import net.fabricmc.mapping.tree.MethodDef;
 import net.fabricmc.mapping.tree.ParameterDef;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.List;
@@ -33,7 +34,27 @@ public interface MutableMethodDef extends MethodDef, MutableDescriptored {
         return (Collection<ParameterDef>) (Collection<? extends ParameterDef>) getParametersMutable();
     }
     
+    /**
+     * Returns the first parameter with a local variable index, or creates it with the primary name.
+     * An existing parameter is returned as is, its names are not changed.
+     */
     MutableParameterDef getOrCreateParameter(int lvIndex, String primaryName);
     
     MutableParameterDef constructParameter(int lvIndex, String primaryName);
+    
+    /**
+     * Finds the first parameter with a local variable index.
+     *
+     * @param lvIndex the local variable index of the parameter
+     * @return the parameter, or {@code null} if there is no parameter with this index
+     */
+    @Nullable
+    default MutableParameterDef findParameter(int lvIndex) {
+        for (MutableParameterDef parameterDef : getParametersMutable()) {
+            if (parameterDef.getLocalVariableIndex() == lvIndex) {
+                return parameterDef;
+            }
+        }
+        return null;
+    }
 }
@@ -22,6 +22,7 @@ package dev.architectury.mappingslayers.api.mutable;
 import dev.architectury.mappingslayers.api.utils.MappingsUtils;
 import net.fabricmc.mapping.tree.ClassDef;
 import net.fabricmc.mapping.tree.TinyTree;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.List;
@@ -51,4 +52,24 @@ public interface MutableTinyTree extends TinyTree {
     MutableClassDef getOrCreateClass(String primaryName);
     
     MutableClassDef constructClass(String primaryName);
+    
+    /**
+     * Finds the first class with a raw name in a namespace.
+     *
+     * @param namespace the namespace index
+     * @param name      the raw name of the class in the namespace
+     * @return the class, or {@code null} if there is no class with this name
+     */
+    @Nullable
+    default MutableClassDef findClass(int namespace, String name) {
+        if (namespace == 0) {
+            return getDefaultNamespaceClassMapMutable().get(name);
+        }
+        for (MutableClassDef classDef : getClassesMutable()) {
+            if (classDef.getRawName(namespace).equals(name)) {
+                return classDef;
+            }
+        }
+        return null;
+    }
 }
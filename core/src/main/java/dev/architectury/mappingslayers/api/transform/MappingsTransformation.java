@@ -26,6 +26,14 @@ public interface MappingsTransformation {
     
     default void handle(MutableTinyTree tree) {}
     
+    /**
+     * Returns whether the transformation only looks at the entry it is given and can handle entries from several
+     * threads at once. Such {@link SimpleMappingsTransformation}s are applied to the classes of a tree in parallel.
+     */
+    default boolean isParallelSafe() {
+        return false;
+    }
+    
     default MutableTinyTree modify(MutableTinyTree tree) {
         handle(tree);
         return tree;
@@ -0,0 +1,198 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api.transform.builtin;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableMapped;
+import dev.architectury.mappingslayers.api.transform.SimpleMappingsTransformation;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps entries by their intermediary name through a table per entry type, the same as a run of
+ * {@link MapTransformation}s in a single lookup per entry. A later mapping of the same name replaces the earlier one.
+ */
+public class MapTableTransformation implements SimpleMappingsTransformation {
+    private final Map<MappingsEntryType, Map<String, String>> tables = new EnumMap<>(MappingsEntryType.class);
+    
+    public MapTableTransformation() {
+        for (MappingsEntryType type : MappingsEntryType.values()) {
+            tables.put(type, new LinkedHashMap<>());
+        }
+    }
+    
+    /**
+     * Adds / replaces the mapping of an entry, an empty {@code mapped} name unmaps the entry.
+     */
+    public void put(MappingsEntryType type, String intermediary, String mapped) {
+        tables.get(type).put(intermediary, mapped);
+    }
+    
+    /**
+     * Reads mappings from a TSV or CSV file, see {@link #read(Reader, char)}.
+     * Files ending with {@code .csv} are split on commas and other files on tabs.
+     */
+    public void read(Path file) throws IOException {
+        char delimiter = file.getFileName().toString().endsWith(".csv") ? ',' : '\t';
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            read(reader, delimiter);
+        }
+    }
+    
+    /**
+     * Reads mappings from rows of {@code type, intermediary, mapped} separated by {@code delimiter}.
+     * The type is {@code class}, {@code method} or {@code field}, or their first letter. Rows without a mapped name
+     * unmap the entry, empty rows and rows starting with {@code #} are skipped.
+     * <p>
+     * Columns may be quoted as in RFC 4180, so that they can contain the delimiter, line breaks and doubled quotes.
+     * Unquoted columns are trimmed.
+     */
+    public void read(Reader reader, char delimiter) throws IOException {
+        LineNumberReader lines = new LineNumberReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            int lineNumber = lines.getLineNumber();
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+            List<String> columns = columns(lines, line, delimiter);
+            if (columns.size() < 2) {
+                throw new IOException("Expected at least 2 columns at line " + lineNumber + ": " + line);
+            }
+            put(parseType(columns.get(0), lineNumber), columns.get(1), columns.size() > 2 ? columns.get(2) : "");
+        }
+    }
+    
+    /**
+     * Splits a row into its columns, reading more lines while a quoted column is not closed.
+     */
+    private static List<String> columns(LineNumberReader lines, String line, char delimiter) throws IOException {
+        List<String> columns = new ArrayList<>(3);
+        StringBuilder quoted = new StringBuilder();
+        int i = 0;
+        while (true) {
+            int start = i;
+            while (i < line.length() && line.charAt(i) == ' ') i++;
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                quoted.setLength(0);
+                while (true) {
+                    if (i == line.length()) {
+                        line = lines.readLine();
+                        if (line == null) {
+                            throw new IOException("Unterminated quoted column at line " + lines.getLineNumber() + "!");
+                        }
+                        quoted.append('\n');
+                        i = 0;
+                        continue;
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        quoted.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        quoted.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                while (i < line.length() && line.charAt(i) == ' ') i++;
+                if (i < line.length() && line.charAt(i) != delimiter) {
+                    throw new IOException("Unexpected \"" + line.charAt(i) + "\" after a quoted column at line " + lines.getLineNumber() + "!");
+                }
+                columns.add(quoted.toString());
+            } else {
+                int end = line.indexOf(delimiter, start);
+                if (end < 0) end = line.length();
+                columns.add(line.substring(start, end).trim());
+                i = end;
+            }
+            if (i >= line.length()) return columns;
+            i++;
+        }
+    }
+    
+    private static MappingsEntryType parseType(String type, int lineNumber) throws IOException {
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "c":
+            case "class":
+                return MappingsEntryType.CLASS;
+            case "m":
+            case "method":
+                return MappingsEntryType.METHOD;
+            case "f":
+            case "field":
+                return MappingsEntryType.FIELD;
+            default:
+                throw new IOException("Unknown entry type \"" + type + "\" at line " + lineNumber + "!");
+        }
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Map<String, String> table : tables.values()) {
+            size += table.size();
+        }
+        return size;
+    }
+    
+    @Override
+    public String uuid() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<MappingsEntryType, Map<String, String>> typeEntry : tables.entrySet()) {
+            Map<String, String> table = typeEntry.getValue();
+            if (table.isEmpty()) continue;
+            if (builder.length() > 0) builder.append("||||");
+            builder.append(typeEntry.getKey().ordinal());
+            for (Map.Entry<String, String> entry : table.entrySet()) {
+                String mapped = entry.getValue();
+                builder.append("||||").append(entry.getKey()).append('|').append(mapped.isEmpty() ? "%|%" : mapped);
+            }
+        }
+        return builder.toString();
+    }
+    
+    @Override
+    public boolean handleType(MappingsEntryType type) {
+        return !tables.get(type).isEmpty();
+    }
+    
+    @Override
+    public boolean isParallelSafe() {
+        return true;
+    }
+    
+    @Override
+    public void handle(MutableMapped entry) {
+        String mapped = tables.get(entry.getType()).get(entry.getIntermediary());
+        if (mapped != null) {
+            entry.setMapped(mapped);
+        }
+    }
+}
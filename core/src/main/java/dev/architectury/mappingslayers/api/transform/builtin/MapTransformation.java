@@ -38,6 +38,11 @@ public class MapTransformation extends AbstractSimpleMappingsTransformation {
         return intermediary + '|' + (mapped.isEmpty() ? "%|%" : mapped);
     }
     
+    @Override
+    public boolean isParallelSafe() {
+        return true;
+    }
+    
     @Override
     public void handle(MutableMapped entry) {
         if (entry.getIntermediary().equals(intermediary)) {
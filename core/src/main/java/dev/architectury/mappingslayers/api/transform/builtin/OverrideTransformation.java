@@ -0,0 +1,230 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api.transform.builtin;
+
+import dev.architectury.mappingslayers.api.Mappings;
+import dev.architectury.mappingslayers.api.mutable.*;
+import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.impl.mappings.StreamingTinyMappings;
+import dev.architectury.mappingslayers.impl.mappings.TinyReader;
+import dev.architectury.mappingslayers.impl.mappings.TinyTreeMappings;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Overrides the names of a tree with the names of another set of mappings, joining the two trees on their
+ * intermediary names: classes by their name, members by their owner, name and descriptor.
+ * <p>
+ * The predicate is given each entry of the override mappings, together with the entry of the tree it matches,
+ * or {@code null} if it has none. Accepted entries replace the non-empty names and comment of the matching
+ * entry, or are added to the tree if missing.
+ */
+public class OverrideTransformation implements MappingsTransformation {
+    private final Mappings mappings;
+    private final BiPredicate<MappingsEntry, MappingsEntry> predicate;
+    private final String predicateId;
+    
+    /**
+     * @param mappings    the mappings overriding the tree
+     * @param predicate   tests the entry of the tree, or {@code null}, against the overriding entry
+     * @param predicateId identifies the predicate in the {@link #uuid()}
+     */
+    public OverrideTransformation(Mappings mappings, BiPredicate<MappingsEntry, MappingsEntry> predicate, String predicateId) {
+        this.mappings = mappings;
+        this.predicate = predicate;
+        this.predicateId = predicateId;
+    }
+    
+    @Override
+    public String uuid() {
+        return "override|" + mappings.uuid() + "|" + predicateId;
+    }
+    
+    @Override
+    public void handle(MutableTinyTree tree) {
+        try {
+            override(tree, readTree(mappings));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Returns the tree of the mappings, the tree of {@link TinyTreeMappings} is used as it is.
+     */
+    private static MutableTinyTree readTree(Mappings mappings) throws IOException {
+        if (mappings instanceof TinyTreeMappings) {
+            return ((TinyTreeMappings) mappings).getTree();
+        }
+        if (mappings instanceof StreamingTinyMappings) {
+            return ((StreamingTinyMappings) mappings).readTree();
+        }
+        // other mappings are only available serialized, they go through a temporary file instead of a string
+        Path file = Files.createTempFile("mappings-override", ".tiny");
+        try {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                mappings.serializeToTiny(writer);
+            }
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                return TinyReader.loadWithDetection(reader);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    /**
+     * Overrides {@code tree} with {@code override}, in time linear to the size of both trees.
+     */
+    public void override(MutableTinyTree tree, MutableTinyTree override) {
+        int intermediary = namespaceId(tree, MappingsEntry.NS_INTERMEDIARY);
+        int overrideIntermediary = namespaceId(override, MappingsEntry.NS_INTERMEDIARY);
+        List<String> namespaces = tree.getMetadata().getNamespaces();
+        int[] mapper = new int[namespaces.size()];
+        for (int i = 0; i < mapper.length; i++) {
+            mapper[i] = MappingsUtils.namespaceId(override, namespaces.get(i));
+        }
+        
+        Map<String, MutableClassDef> classes = new HashMap<>();
+        Map<MemberKey, MutableMethodDef> methods = new HashMap<>();
+        Map<MemberKey, MutableFieldDef> fields = new HashMap<>();
+        for (MutableClassDef classDef : tree.getClassesMutable()) {
+            String owner = classDef.getName(intermediary);
+            classes.putIfAbsent(owner, classDef);
+            for (MutableMethodDef methodDef : classDef.getMethodsMutable()) {
+                methods.putIfAbsent(new MemberKey(owner, methodDef.getName(intermediary), methodDef.getDescriptor(intermediary)), methodDef);
+            }
+            for (MutableFieldDef fieldDef : classDef.getFieldsMutable()) {
+                fields.putIfAbsent(new MemberKey(owner, fieldDef.getName(intermediary), fieldDef.getDescriptor(intermediary)), fieldDef);
+            }
+        }
+        
+        for (MutableClassDef overrideClass : override.getClassesMutable()) {
+            String owner = overrideClass.getName(overrideIntermediary);
+            MutableClassDef classDef = classes.get(owner);
+            if (predicate.test(classDef, overrideClass)) {
+                if (classDef != null) {
+                    copyOverNames(overrideClass, classDef, mapper);
+                } else if (mapper[0] >= 0) {
+                    classDef = tree.getOrCreateClass(overrideClass.getName(mapper[0]));
+                    copyOverNames(overrideClass, classDef, mapper);
+                    classes.put(owner, classDef);
+                }
+            }
+            if (classDef == null) continue;
+            for (MutableMethodDef overrideMethod : overrideClass.getMethodsMutable()) {
+                MemberKey key = new MemberKey(owner, overrideMethod.getName(overrideIntermediary), overrideMethod.getDescriptor(overrideIntermediary));
+                MutableMethodDef methodDef = methods.get(key);
+                if (predicate.test(methodDef, overrideMethod)) {
+                    if (methodDef != null) {
+                        copyOverNames(overrideMethod, methodDef, mapper);
+                    } else if (mapper[0] >= 0) {
+                        methodDef = classDef.getOrCreateMethod(overrideMethod.getName(mapper[0]), overrideMethod.getDescriptor(mapper[0]));
+                        copyOverNames(overrideMethod, methodDef, mapper);
+                        methods.put(key, methodDef);
+                    }
+                }
+                if (methodDef == null) continue;
+                for (MutableParameterDef overrideParameter : overrideMethod.getParametersMutable()) {
+                    MutableParameterDef parameterDef = methodDef.findParameter(overrideParameter.getLocalVariableIndex());
+                    if (predicate.test(parameterDef, overrideParameter)) {
+                        if (parameterDef != null) {
+                            copyOverNames(overrideParameter, parameterDef, mapper);
+                        } else if (mapper[0] >= 0) {
+                            parameterDef = methodDef.getOrCreateParameter(overrideParameter.getLocalVariableIndex(), overrideParameter.getName(mapper[0]));
+                            copyOverNames(overrideParameter, parameterDef, mapper);
+                        }
+                    }
+                }
+            }
+            for (MutableFieldDef overrideField : overrideClass.getFieldsMutable()) {
+                MemberKey key = new MemberKey(owner, overrideField.getName(overrideIntermediary), overrideField.getDescriptor(overrideIntermediary));
+                MutableFieldDef fieldDef = fields.get(key);
+                if (predicate.test(fieldDef, overrideField)) {
+                    if (fieldDef != null) {
+                        copyOverNames(overrideField, fieldDef, mapper);
+                    } else if (mapper[0] >= 0) {
+                        fieldDef = classDef.getOrCreateField(overrideField.getName(mapper[0]), overrideField.getDescriptor(mapper[0]));
+                        copyOverNames(overrideField, fieldDef, mapper);
+                        fields.put(key, fieldDef);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static int namespaceId(MutableTinyTree tree, String namespace) {
+        int id = MappingsUtils.namespaceId(tree, namespace);
+        if (id < 0) {
+            throw new IllegalArgumentException("Mappings are missing the " + namespace + " namespace, found " + tree.getMetadata().getNamespaces() + "!");
+        }
+        return id;
+    }
+    
+    private static void copyOverNames(MutableMapped from, MutableMapped to, int[] mapper) {
+        for (int i = 1; i < mapper.length; i++) {
+            if (mapper[i] < 0) continue;
+            String name = from.getRawName(mapper[i]);
+            if (!name.isEmpty()) {
+                to.setName(i, name);
+            }
+        }
+        String comment = from.getComment();
+        if (comment != null) {
+            to.setComment(comment);
+        }
+    }
+    
+    private static final class MemberKey {
+        private final String owner;
+        private final String name;
+        private final String descriptor;
+        
+        MemberKey(String owner, String name, String descriptor) {
+            this.owner = owner;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MemberKey)) return false;
+            MemberKey that = (MemberKey) o;
+            return owner.equals(that.owner) && name.equals(that.name) && descriptor.equals(that.descriptor);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * (31 * owner.hashCode() + name.hashCode()) + descriptor.hashCode();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api.transform.builtin;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableMapped;
+import dev.architectury.mappingslayers.api.transform.SimpleMappingsTransformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces the mapped names fully matching regexes, the rules are applied in order to each entry.
+ * <p>
+ * Each rule is compiled with the literal prefix and suffix its regex requires, names without them are skipped without
+ * running the regex. A matching name is rewritten with {@link Matcher#replaceAll(String)}, so regexes which can also
+ * match an empty or shorter part of the name replace every such match.
+ */
+public class RegexReplaceTransformation implements SimpleMappingsTransformation {
+    private final List<Rule> rules = new ArrayList<>();
+    private int typeId;
+    
+    /**
+     * Adds a rule replacing the mapped names of the entries of {@code typeId} fully matching {@code regex}.
+     *
+     * @param typeId the types of the entries, see {@link dev.architectury.mappingslayers.api.utils.MappingsUtils#getTypeId}
+     */
+    public void add(int typeId, String regex, String replacement) {
+        rules.add(new Rule(typeId, regex, replacement));
+        this.typeId |= typeId;
+    }
+    
+    public int size() {
+        return rules.size();
+    }
+    
+    @Override
+    public String uuid() {
+        return rules.stream().map(rule -> rule.typeId + "\0" + rule.pattern.pattern() + "\0" + rule.replacement)
+                .collect(Collectors.joining("||||"));
+    }
+    
+    @Override
+    public boolean handleType(MappingsEntryType type) {
+        return (typeId >> type.ordinal() & 1) == 1;
+    }
+    
+    @Override
+    public boolean isParallelSafe() {
+        return true;
+    }
+    
+    @Override
+    public void handle(MutableMapped entry) {
+        int bit = 1 << entry.getType().ordinal();
+        for (Rule rule : rules) {
+            if ((rule.typeId & bit) == 0) continue;
+            String mapped = entry.getMapped();
+            if (mapped.isEmpty() || !rule.accepts(mapped)) continue;
+            Matcher matcher = rule.pattern.matcher(mapped);
+            if (matcher.matches()) {
+                entry.setMapped(matcher.replaceAll(rule.replacement));
+            }
+        }
+    }
+    
+    private static class Rule {
+        private static final String META = "\\^$.|?*+()[]{}";
+        
+        private final int typeId;
+        private final Pattern pattern;
+        private final String replacement;
+        private final String prefix;
+        private final String suffix;
+        
+        private Rule(int typeId, String regex, String replacement) {
+            this.typeId = typeId;
+            this.pattern = Pattern.compile(regex);
+            this.replacement = replacement;
+            boolean literals = regex.indexOf('|') < 0 && !regex.contains("(?");
+            this.prefix = literals ? prefix(regex) : "";
+            this.suffix = literals ? suffix(regex) : "";
+        }
+        
+        boolean accepts(String name) {
+            return name.length() >= prefix.length() + suffix.length() && name.startsWith(prefix) && name.endsWith(suffix);
+        }
+        
+        /**
+         * Returns the literal characters the regex starts with, without the last one if it is made optional.
+         */
+        private static String prefix(String regex) {
+            int start = regex.startsWith("^") ? 1 : 0;
+            int end = start;
+            while (end < regex.length() && META.indexOf(regex.charAt(end)) < 0) end++;
+            if (end < regex.length() && end > start && "?*{".indexOf(regex.charAt(end)) >= 0) end--;
+            return regex.substring(start, end);
+        }
+        
+        /**
+         * Returns the literal characters the regex ends with, stopping at any escaped character.
+         * A fully literal regex has no suffix, it is already its prefix.
+         */
+        private static String suffix(String regex) {
+            int end = regex.length();
+            if (end > 0 && regex.charAt(end - 1) == '$' && !escaped(regex, end - 1)) end--;
+            int start = end;
+            while (start > 0 && META.indexOf(regex.charAt(start - 1)) < 0 && !escaped(regex, start - 1)) start--;
+            if (start == 0 || start == 1 && regex.charAt(0) == '^') return "";
+            return regex.substring(start, end);
+        }
+        
+        private static boolean escaped(String regex, int index) {
+            int backslashes = 0;
+            while (index - backslashes > 0 && regex.charAt(index - backslashes - 1) == '\\') backslashes++;
+            return (backslashes & 1) == 1;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * A descriptor parsed once into the class names it references and the text around them, so that it can be written in
+ * another namespace by substituting the class names.
+ * <p>
+ * For example {@code (La;[Lb;)V} is kept as the parts {@code (L}, {@code ;[L} and {@code ;)V} around the classes
+ * {@code a} and {@code b}.
+ */
+public final class DescriptorTemplate {
+    private static final String[] NO_CLASSES = new String[0];
+    
+    private final String descriptor;
+    // the text before each class name, followed by the text after the last one
+    private final String[] parts;
+    private final String[] classes;
+    
+    private DescriptorTemplate(String descriptor, String[] parts, String[] classes) {
+        this.descriptor = descriptor;
+        this.parts = parts;
+        this.classes = classes;
+    }
+    
+    public static DescriptorTemplate parse(String descriptor) {
+        int start = descriptor.indexOf('L');
+        if (start < 0) {
+            return new DescriptorTemplate(descriptor, new String[]{descriptor}, NO_CLASSES);
+        }
+        List<String> parts = new ArrayList<>();
+        List<String> classes = new ArrayList<>();
+        int last = 0;
+        for (int i = start; i < descriptor.length(); i++) {
+            if (descriptor.charAt(i) == 'L') {
+                int end = descriptor.indexOf(';', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Invalid descriptor: " + descriptor);
+                }
+                parts.add(descriptor.substring(last, i + 1));
+                classes.add(descriptor.substring(i + 1, end));
+                last = end;
+                i = end;
+            }
+        }
+        parts.add(descriptor.substring(last));
+        return new DescriptorTemplate(descriptor, parts.toArray(new String[0]), classes.toArray(new String[0]));
+    }
+    
+    public int getClassCount() {
+        return classes.length;
+    }
+    
+    public String getClassName(int index) {
+        return classes[index];
+    }
+    
+    /**
+     * Writes the descriptor with the class names given by index.
+     */
+    public String format(IntFunction<String> classNames) {
+        if (classes.length == 0) return descriptor;
+        StringBuilder builder = new StringBuilder(descriptor.length() + 16);
+        for (int i = 0; i < classes.length; i++) {
+            builder.append(parts[i]).append(classNames.apply(i));
+        }
+        return builder.append(parts[classes.length]).toString();
+    }
+    
+    /**
+     * Writes the descriptor with each class name replaced.
+     */
+    public String remap(UnaryOperator<String> remapper) {
+        return format(i -> remapper.apply(classes[i]));
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DescriptorTemplate)) return false;
+        return descriptor.equals(((DescriptorTemplate) o).descriptor);
+    }
+    
+    @Override
+    public int hashCode() {
+        return descriptor.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return descriptor;
+    }
+}
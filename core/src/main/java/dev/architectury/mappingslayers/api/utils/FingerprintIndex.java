@@ -0,0 +1,192 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api.utils;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent index of the digests of input files, keyed by the path, size, modification time and file key
+ * of the file so that unchanged inputs are not hashed again.
+ * <p>
+ * Indexes are shared per index file within a process, the file itself may be shared by several processes.
+ */
+public final class FingerprintIndex {
+    private static final int VERSION = 1;
+    private static final Map<Path, FingerprintIndex> INDEXES = new ConcurrentHashMap<>();
+    private final Path file;
+    private final Path lockFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    public enum Hash {
+        SHA512(Hashing.sha512(), ""),
+        /**
+         * A non-cryptographic hash, much faster on large inputs but with a weaker collision resistance.
+         */
+        MURMUR3(Hashing.murmur3_128(), "murmur3:");
+        
+        private final HashFunction function;
+        private final String prefix;
+        
+        Hash(HashFunction function, String prefix) {
+            this.function = function;
+            this.prefix = prefix;
+        }
+        
+        public HashFunction getFunction() {
+            return function;
+        }
+        
+        /**
+         * Formats a digest, non default hashes are prefixed so that they never collide with another hash.
+         */
+        public String format(HashCode code) {
+            return prefix + code;
+        }
+    }
+    
+    @FunctionalInterface
+    public interface Digester {
+        HashCode digest(HashFunction function) throws IOException;
+    }
+    
+    private FingerprintIndex(Path file) {
+        this.file = file;
+        this.lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        entries.putAll(read());
+    }
+    
+    public static FingerprintIndex open(Path file) {
+        return INDEXES.computeIfAbsent(file.toAbsolutePath().normalize(), FingerprintIndex::new);
+    }
+    
+    /**
+     * Returns the digest of {@code input}, {@code digester} is only called if the file changed since it was last indexed.
+     * The index file is read again before hashing, so entries written by other processes are picked up.
+     */
+    public String fingerprint(Path input, Hash hash, Digester digester) throws IOException {
+        Path path = input.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String key = hash.name() + ':' + path;
+        String fileKey = attributes.fileKey() == null ? "" : attributes.fileKey().toString();
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.matches(size, lastModified, fileKey)) {
+            entry = read().get(key);
+        }
+        if (entry != null && entry.matches(size, lastModified, fileKey)) {
+            entries.put(key, entry);
+            return entry.digest;
+        }
+        String digest = hash.format(digester.digest(hash.getFunction()));
+        write(key, new Entry(size, lastModified, fileKey, digest));
+        return digest;
+    }
+    
+    /**
+     * Reads the entries of the index file, a missing or broken index is empty.
+     */
+    private Map<String, Entry> read() {
+        Map<String, Entry> entries = new HashMap<>();
+        if (!Files.exists(file)) return entries;
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (stream.readInt() != VERSION) return entries;
+            int count = stream.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = stream.readUTF();
+                entries.put(key, new Entry(stream.readLong(), stream.readLong(), stream.readUTF(), stream.readUTF()));
+            }
+        } catch (IOException e) {
+            // a broken index is rebuilt
+            entries.clear();
+        }
+        return entries;
+    }
+    
+    /**
+     * Adds an entry to the index file. Other processes may share the file, so the file is read again and merged
+     * under a lock, and replaced atomically so readers never see a partial index.
+     */
+    private synchronized void write(String key, Entry entry) throws IOException {
+        // createDirectories rejects a symbolic link to a directory
+        if (!Files.isDirectory(file.getParent())) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.lock()) {
+            Map<String, Entry> merged = read();
+            merged.put(key, entry);
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    stream.writeInt(VERSION);
+                    stream.writeInt(merged.size());
+                    for (Map.Entry<String, Entry> mergedEntry : merged.entrySet()) {
+                        stream.writeUTF(mergedEntry.getKey());
+                        stream.writeLong(mergedEntry.getValue().size);
+                        stream.writeLong(mergedEntry.getValue().lastModified);
+                        stream.writeUTF(mergedEntry.getValue().fileKey);
+                        stream.writeUTF(mergedEntry.getValue().digest);
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            entries.putAll(merged);
+        }
+    }
+    
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+        private final String digest;
+        
+        private Entry(long size, long lastModified, String fileKey, String digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.digest = digest;
+        }
+        
+        private boolean matches(long size, long lastModified, String fileKey) {
+            return this.size == size && this.lastModified == lastModified && this.fileKey.equals(fileKey);
+        }
+    }
+}
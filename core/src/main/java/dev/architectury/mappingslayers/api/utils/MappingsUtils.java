@@ -20,7 +20,11 @@
 package dev.architectury.mappingslayers.api.utils;
 
 import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
 import dev.architectury.mappingslayers.api.mutable.*;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.mappingslayers.impl.columnar.ColumnarTree;
+import dev.architectury.mappingslayers.impl.columnar.OffHeapStorage;
 import dev.architectury.mappingslayers.impl.mappings.TinyReader;
 import dev.architectury.mappingslayers.impl.mappings.Tsrg2Reader;
 import dev.architectury.mappingslayers.impl.mappings.Tsrg2Writer;
@@ -31,12 +35,15 @@ import dev.architectury.refmapremapper.utils.DescriptorRemapper;
 import net.fabricmc.mapping.reader.v2.TinyMetadata;
 import net.fabricmc.mapping.tree.ClassDef;
 import net.fabricmc.mapping.tree.TinyTree;
-import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -76,6 +83,15 @@ public final class MappingsUtils {
         if (from.equals(primaryNamespace)) {
             return remapDescriptorFromPrimary(tree, descriptor, to);
         }
+        if (tree instanceof MutableTinyTree) {
+            MutableTinyTree mutableTree = (MutableTinyTree) tree;
+            int namespace = namespaceId(tree, from);
+            return DescriptorRemapper.remapDescriptor(descriptor, s -> {
+                ClassDef def = mutableTree.findClass(namespace, s);
+                if (def == null) return s;
+                return def.getName(to);
+            });
+        }
         return DescriptorRemapper.remapDescriptor(descriptor, s -> {
             for (ClassDef def : tree.getClasses()) {
                 if (def.getRawName(from).equals(s)) {
@@ -181,6 +197,30 @@ public final class MappingsUtils {
         return new TinyTreeImpl(tree.getMetadata(), tree.getClasses().stream());
     }
     
+    /**
+     * Creates a columnar copy of a {@link TinyTree}, which keeps its names in a shared string table.
+     * Local variables are not copied.
+     *
+     * @param tree the mappings tree to be copied
+     * @return the copied mappings tree
+     */
+    public static MutableTinyTree copyAsColumnar(TinyTree tree) {
+        return new ColumnarTree(tree.getMetadata(), tree.getClasses().stream());
+    }
+    
+    /**
+     * Creates a {@link MutableTinyTree} keeping its entries and names outside of the heap, either in direct buffers
+     * or in a temporary file mapped in memory. The tree is {@link java.io.Closeable}, closing it frees its memory.
+     * Local variables are not kept.
+     *
+     * @param metadata  the metadata of the mappings tree
+     * @param directory the directory of the temporary file, or {@code null} to use direct buffers
+     * @return the newly created mappings tree
+     */
+    public static MutableTinyTree createOffHeap(TinyMetadata metadata, @Nullable Path directory) throws IOException {
+        return new ColumnarTree(metadata, directory == null ? new OffHeapStorage() : new OffHeapStorage(directory));
+    }
+    
     /**
      * Creates a copy of {@link MutableTinyTree} from a {@link TinyTree}, if {@code tree} is not an instance of {@link MutableTinyTree}.
      *
@@ -213,7 +253,53 @@ public final class MappingsUtils {
      * @return the mappings tree
      */
     public static MutableTinyTree deserializeFromTsrg2(String content) {
-        return Tsrg2Reader.read(IOUtils.lineIterator(new StringReader(content)));
+        return Tsrg2Reader.read(content, MappingsLoadOptions.defaults());
+    }
+    
+    /**
+     * Visits mappings in the tiny format without materializing a tree.
+     *
+     * @param content the content of the mappings in tiny format
+     * @param visitor the visitor
+     */
+    public static void visitFromString(String content, MappingsVisitor visitor) {
+        try {
+            TinyReader.visitWithDetection(new BufferedReader(new StringReader(content)), visitor, MappingsLoadOptions.defaults());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Visits mappings in the tiny format without materializing a tree, the file is memory mapped.
+     *
+     * @param file    the mappings file in tiny format
+     * @param visitor the visitor
+     */
+    public static void visit(Path file, MappingsVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            TinyReader.visitWithDetection(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), visitor, MappingsLoadOptions.defaults());
+        }
+    }
+    
+    /**
+     * Visits mappings in the tsrg2 format without materializing a tree.
+     *
+     * @param content the content of the mappings in tsrg2 format
+     * @param visitor the visitor
+     */
+    public static void visitFromTsrg2(String content, MappingsVisitor visitor) {
+        Tsrg2Reader.visit(content, visitor, MappingsLoadOptions.defaults());
+    }
+    
+    /**
+     * Visits the entries of a mappings tree.
+     *
+     * @param tree    the mappings tree
+     * @param visitor the visitor
+     */
+    public static void accept(TinyTree tree, MappingsVisitor visitor) {
+        TinyTreeEntryIterator.accept(tree, visitor);
     }
     
     /**
@@ -292,6 +378,7 @@ public final class MappingsUtils {
                 copyOverNamesDescriptored(methodDef, newMethodDef, reverseNamespacesMap);
                 for (MutableParameterDef parameterDef : methodDef.getParametersMutable()) {
                     MutableParameterDef newParameterDef = newMethodDef.getOrCreateParameter(parameterDef.getLocalVariableIndex(), parameterDef.getName(primaryInPreviousIndices));
+                    newParameterDef.setName(0, parameterDef.getName(primaryInPreviousIndices));
                     copyOverNames(parameterDef, newParameterDef, reverseNamespacesMap);
                 }
             }
@@ -0,0 +1,178 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api.utils;
+
+import net.fabricmc.mapping.tree.ClassDef;
+import net.fabricmc.mapping.tree.TinyTree;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remaps class names and descriptors with a fixed set of renamed classes, usually resolved once for a pair of
+ * namespaces of a tree with {@link #of(TinyTree, int, int)}.
+ * <p>
+ * Descriptors are scanned once without allocating, the class names are looked up by their range in the descriptor.
+ * Descriptors which reference no renamed class are returned as is. A remapper is immutable and thread safe.
+ */
+public final class NamespaceRemapper {
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    
+    private final String[] keys;
+    private final String[] values;
+    private final int[] hashes;
+    private final int size;
+    
+    private NamespaceRemapper(Map<String, String> renames) {
+        int capacity = 16;
+        while (capacity < renames.size() * 2) capacity <<= 1;
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.hashes = new int[capacity];
+        int size = 0;
+        for (Map.Entry<String, String> entry : renames.entrySet()) {
+            String key = entry.getKey();
+            if (key.equals(entry.getValue())) continue;
+            int hash = key.hashCode();
+            int i = mix(hash) & (capacity - 1);
+            while (keys[i] != null) i = (i + 1) & (capacity - 1);
+            keys[i] = key;
+            values[i] = entry.getValue();
+            hashes[i] = hash;
+            size++;
+        }
+        this.size = size;
+    }
+    
+    /**
+     * Creates a remapper renaming classes by name, entries mapping a class to itself are ignored.
+     */
+    public static NamespaceRemapper of(Map<String, String> renames) {
+        return new NamespaceRemapper(renames);
+    }
+    
+    /**
+     * Creates a remapper from {@code from} to {@code to} namespace, with the same results as
+     * {@link MappingsUtils#remapDescriptor(TinyTree, String, int, int)} for the current classes of the tree.
+     */
+    public static NamespaceRemapper of(TinyTree tree, int from, int to) {
+        String toNamespace = MappingsUtils.namespace(tree, to);
+        Map<String, String> renames = new HashMap<>();
+        if (from == 0) {
+            for (Map.Entry<String, ClassDef> entry : tree.getDefaultNamespaceClassMap().entrySet()) {
+                renames.put(entry.getKey(), entry.getValue().getName(toNamespace));
+            }
+        } else {
+            String fromNamespace = MappingsUtils.namespace(tree, from);
+            for (ClassDef classDef : tree.getClasses()) {
+                String name = classDef.getRawName(fromNamespace);
+                if (!name.isEmpty()) renames.putIfAbsent(name, classDef.getName(toNamespace));
+            }
+        }
+        return new NamespaceRemapper(renames);
+    }
+    
+    /**
+     * Returns whether the remapper renames no class.
+     */
+    public boolean isIdentity() {
+        return size == 0;
+    }
+    
+    public String mapClass(String name) {
+        String mapped = get(name, 0, name.length());
+        return mapped == null ? name : mapped;
+    }
+    
+    /**
+     * Remaps the classes referenced by a descriptor.
+     *
+     * @return the remapped descriptor, or the same instance if no class was renamed
+     */
+    public String mapDescriptor(String descriptor) {
+        if (size == 0) return descriptor;
+        StringBuilder builder = null;
+        int copied = 0;
+        int length = descriptor.length();
+        for (int i = 0; i < length; i++) {
+            if (descriptor.charAt(i) != 'L') continue;
+            int end = descriptor.indexOf(';', i + 1);
+            if (end < 0) break;
+            String mapped = get(descriptor, i + 1, end);
+            if (mapped != null) {
+                if (builder == null) {
+                    builder = BUILDER.get();
+                    builder.setLength(0);
+                }
+                builder.append(descriptor, copied, i + 1).append(mapped);
+                copied = end;
+            }
+            i = end;
+        }
+        if (builder == null) return descriptor;
+        return builder.append(descriptor, copied, length).toString();
+    }
+    
+    /**
+     * Remaps a batch of descriptors, in the order of the collection.
+     */
+    public List<String> mapDescriptors(Collection<String> descriptors) {
+        List<String> mapped = new ArrayList<>(descriptors.size());
+        for (String descriptor : descriptors) {
+            mapped.add(mapDescriptor(descriptor));
+        }
+        return mapped;
+    }
+    
+    /**
+     * Remaps an array of descriptors in place.
+     */
+    public void mapDescriptors(String[] descriptors) {
+        for (int i = 0; i < descriptors.length; i++) {
+            descriptors[i] = mapDescriptor(descriptors[i]);
+        }
+    }
+    
+    @Nullable
+    private String get(String str, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + str.charAt(i);
+        }
+        int mask = keys.length - 1;
+        int length = end - start;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) return null;
+            if (hashes[i] == hash && key.length() == length && key.regionMatches(0, str, start, length)) {
+                return values[i];
+            }
+        }
+    }
+    
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
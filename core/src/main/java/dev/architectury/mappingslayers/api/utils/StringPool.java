@@ -0,0 +1,189 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A thread safe pool of strings, used by the readers to share a single instance between equal names and descriptors.
+ * <p>
+ * A pool may be shared between loads with {@link dev.architectury.mappingslayers.api.MappingsLoadOptions#withStringPool(StringPool)},
+ * the pooled strings are kept as long as the pool is reachable.
+ */
+public final class StringPool {
+    private static final int SEGMENTS = 16;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    
+    public StringPool() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+    
+    public String intern(String str) {
+        if (str.isEmpty()) return "";
+        int hash = str.hashCode();
+        return segment(hash).intern(str, hash);
+    }
+    
+    /**
+     * Returns the pooled string of the UTF-8 bytes between {@code start} and {@code end},
+     * ASCII strings already in the pool are found without being decoded.
+     */
+    public String intern(ByteBuffer buffer, int start, int end) {
+        if (start == end) return "";
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < 0) {
+                return intern(decode(buffer, start, end));
+            }
+            hash = 31 * hash + b;
+        }
+        return segment(hash).intern(buffer, start, end, hash);
+    }
+    
+    /**
+     * Returns the pooled string of the characters between {@code start} and {@code end},
+     * strings already in the pool are found without a substring being created.
+     */
+    public String intern(CharSequence sequence, int start, int end) {
+        if (start == end) return "";
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + sequence.charAt(i);
+        }
+        return segment(hash).intern(sequence, start, end, hash);
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+    
+    private Segment segment(int hash) {
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+    
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * An open addressing table with linear probing, {@link String#hashCode()} is used so that
+     * ASCII bytes can be looked up with the same hash.
+     */
+    private static final class Segment {
+        private String[] table = new String[256];
+        private int size;
+        
+        synchronized String intern(String str, int hash) {
+            int mask = table.length - 1;
+            for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+                String existing = table[i];
+                if (existing == null) {
+                    return add(i, str);
+                }
+                if (existing.hashCode() == hash && existing.equals(str)) {
+                    return existing;
+                }
+            }
+        }
+        
+        synchronized String intern(ByteBuffer buffer, int start, int end, int hash) {
+            int mask = table.length - 1;
+            for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+                String existing = table[i];
+                if (existing == null) {
+                    return add(i, decode(buffer, start, end));
+                }
+                if (existing.hashCode() == hash && equals(existing, buffer, start, end)) {
+                    return existing;
+                }
+            }
+        }
+        
+        synchronized String intern(CharSequence sequence, int start, int end, int hash) {
+            int mask = table.length - 1;
+            for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+                String existing = table[i];
+                if (existing == null) {
+                    return add(i, sequence.subSequence(start, end).toString());
+                }
+                if (existing.hashCode() == hash && equals(existing, sequence, start, end)) {
+                    return existing;
+                }
+            }
+        }
+        
+        private String add(int index, String str) {
+            table[index] = str;
+            if (++size * 2 > table.length) {
+                rehash();
+            }
+            return str;
+        }
+        
+        private void rehash() {
+            String[] old = table;
+            table = new String[old.length * 2];
+            int mask = table.length - 1;
+            for (String str : old) {
+                if (str == null) continue;
+                int i = mix(str.hashCode()) & mask;
+                while (table[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = str;
+            }
+        }
+        
+        private static boolean equals(String str, ByteBuffer buffer, int start, int end) {
+            if (str.length() != end - start) return false;
+            for (int i = 0; i < str.length(); i++) {
+                if (str.charAt(i) != buffer.get(start + i)) return false;
+            }
+            return true;
+        }
+        
+        private static boolean equals(String str, CharSequence sequence, int start, int end) {
+            if (str.length() != end - start) return false;
+            for (int i = 0; i < str.length(); i++) {
+                if (str.charAt(i) != sequence.charAt(start + i)) return false;
+            }
+            return true;
+        }
+        
+        private static int mix(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
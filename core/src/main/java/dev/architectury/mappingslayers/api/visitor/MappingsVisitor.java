@@ -0,0 +1,82 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.api.visitor;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import net.fabricmc.mapping.reader.v2.TinyMetadata;
+
+/**
+ * A push based visitor of mappings, used to process mappings without materializing a tree.
+ * <p>
+ * Entries are visited depth first: a class is followed by its members, a method by its parameters and local variables.
+ * Every visited entry is closed with {@link #visitEntryEnd(MappingsEntryType)}, comments belong to the innermost open entry.
+ * <p>
+ * Names are given in the order of the namespaces of the header, missing names are empty strings.
+ * Descriptors are always in the primary namespace.
+ */
+public interface MappingsVisitor {
+    default void visitHeader(TinyMetadata metadata) {}
+    
+    /**
+     * @return whether the members of the class should be visited
+     */
+    default boolean visitClass(String[] names) {
+        return true;
+    }
+    
+    /**
+     * @return whether the children of the field should be visited
+     */
+    default boolean visitField(String descriptor, String[] names) {
+        return true;
+    }
+    
+    /**
+     * @return whether the parameters and local variables of the method should be visited
+     */
+    default boolean visitMethod(String descriptor, String[] names) {
+        return true;
+    }
+    
+    /**
+     * @return whether the children of the parameter should be visited
+     */
+    default boolean visitParameter(int lvIndex, String[] names) {
+        return true;
+    }
+    
+    /**
+     * @return whether the children of the local variable should be visited
+     */
+    default boolean visitLocalVariable(int lvIndex, int lvStartOffset, int lvtIndex, String[] names) {
+        return true;
+    }
+    
+    default void visitComment(String comment) {}
+    
+    /**
+     * Closes the last visited entry, this is called even if its visit method returned {@code false}.
+     *
+     * @param type the type of the closed entry
+     */
+    default void visitEntryEnd(MappingsEntryType type) {}
+    
+    default void visitEnd() {}
+}
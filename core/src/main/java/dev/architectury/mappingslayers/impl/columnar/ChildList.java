@@ -0,0 +1,187 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+import static dev.architectury.mappingslayers.impl.columnar.ColumnarTree.*;
+
+/**
+ * A view of the children of a record of a {@link ColumnarTree} with a single kind, walking the sibling links.
+ */
+class ChildList<T> extends AbstractSequentialList<T> {
+    private final ColumnarTree tree;
+    private final int owner;
+    private final int kind;
+    private final int head;
+    
+    ChildList(ColumnarTree tree, int owner, int kind) {
+        this.tree = tree;
+        this.owner = owner;
+        this.kind = kind;
+        this.head = head(kind);
+    }
+    
+    @Override
+    public int size() {
+        return tree.records.get(owner, head + COUNT);
+    }
+    
+    @Override
+    public boolean add(T element) {
+        tree.link(owner, NONE, tree.adopt(element, kind));
+        return true;
+    }
+    
+    @Override
+    public void clear() {
+        int record = tree.records.get(owner, head + FIRST);
+        while (record != NONE) {
+            int next = tree.records.get(record, NEXT);
+            tree.unlink(record);
+            record = next;
+        }
+    }
+    
+    @Override
+    public void sort(Comparator<? super T> comparator) {
+        List<T> sorted = new ArrayList<>(this);
+        sorted.sort(comparator);
+        clear();
+        for (T element : sorted) {
+            add(element);
+        }
+    }
+    
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        return new Iterator(index);
+    }
+    
+    private class Iterator implements ListIterator<T> {
+        private int next;
+        private int nextIndex;
+        private int lastReturned = NONE;
+        
+        Iterator(int index) {
+            if (index < 0 || index > size()) throw new IndexOutOfBoundsException("Index: " + index);
+            next = tree.records.get(owner, head + FIRST);
+            for (int i = 0; i < index; i++) {
+                next = tree.records.get(next, NEXT);
+            }
+            nextIndex = index;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return next != NONE;
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (next == NONE) throw new NoSuchElementException();
+            lastReturned = next;
+            next = tree.records.get(next, NEXT);
+            nextIndex++;
+            return (T) tree.view(lastReturned);
+        }
+        
+        @Override
+        public boolean hasPrevious() {
+            return previousRecord() != NONE;
+        }
+        
+        private int previousRecord() {
+            return next == NONE ? tree.records.get(owner, head + LAST) : tree.records.get(next, PREV);
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public T previous() {
+            int previous = previousRecord();
+            if (previous == NONE) throw new NoSuchElementException();
+            next = lastReturned = previous;
+            nextIndex--;
+            return (T) tree.view(previous);
+        }
+        
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+        
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+        
+        /**
+         * Adopts an entry, stepping over it first if it is the next entry of this iterator.
+         */
+        private int adopt(T element) {
+            if (next != NONE && tree.recordOf(element) == next) {
+                next = tree.records.get(next, NEXT);
+            }
+            return tree.adopt(element, kind);
+        }
+        
+        @Override
+        public void remove() {
+            if (lastReturned == NONE) throw new IllegalStateException();
+            if (next == lastReturned) {
+                next = tree.records.get(next, NEXT);
+            } else {
+                nextIndex--;
+            }
+            tree.unlink(lastReturned);
+            lastReturned = NONE;
+        }
+        
+        @Override
+        public void set(T element) {
+            if (lastReturned == NONE) throw new IllegalStateException();
+            int following = tree.records.get(lastReturned, NEXT);
+            int record = adopt(element);
+            if (record == lastReturned) {
+                // the entry was unlinked to be moved, put it back in its own place
+                tree.link(owner, following, record);
+                return;
+            }
+            tree.link(owner, lastReturned, record);
+            if (next == lastReturned) next = record;
+            tree.unlink(lastReturned);
+            lastReturned = record;
+        }
+        
+        @Override
+        public void add(T element) {
+            int record = adopt(element);
+            tree.link(owner, next, record);
+            nextIndex++;
+            lastReturned = NONE;
+        }
+    }
+}
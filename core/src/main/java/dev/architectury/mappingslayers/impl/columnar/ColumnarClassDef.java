@@ -0,0 +1,88 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableFieldDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+
+import java.util.List;
+
+import static dev.architectury.mappingslayers.impl.columnar.ColumnarTree.*;
+
+public class ColumnarClassDef extends ColumnarMapped implements MutableClassDef {
+    public ColumnarClassDef(ColumnarTree tree, int record) {
+        super(tree, record);
+    }
+    
+    @Override
+    public List<MutableMethodDef> getMethodsMutable() {
+        return new ChildList<>(tree, record, METHOD);
+    }
+    
+    @Override
+    public List<MutableFieldDef> getFieldsMutable() {
+        return new ChildList<>(tree, record, FIELD);
+    }
+    
+    @Override
+    public MutableFieldDef getOrCreateField(String primaryName, String primaryDescriptor) {
+        return (MutableFieldDef) tree.view(getOrCreate(FIELD, primaryName, primaryDescriptor));
+    }
+    
+    @Override
+    public MutableMethodDef getOrCreateMethod(String primaryName, String primaryDescriptor) {
+        return (MutableMethodDef) tree.view(getOrCreate(METHOD, primaryName, primaryDescriptor));
+    }
+    
+    private int getOrCreate(int kind, String primaryName, String primaryDescriptor) {
+        int name = tree.strings.id(primaryName);
+        int descriptor = tree.strings.id(primaryDescriptor);
+        int member = tree.find(record, kind, name, descriptor);
+        if (member == NONE) {
+            member = construct(kind, name, descriptor);
+            tree.link(record, NONE, member);
+        }
+        return member;
+    }
+    
+    private int construct(int kind, int name, int descriptor) {
+        int member = tree.allocate(kind);
+        tree.records.set(member, NAMES, name);
+        tree.records.set(member, KEY, descriptor);
+        return member;
+    }
+    
+    @Override
+    public MutableFieldDef constructField(String primaryName, String primaryDescriptor) {
+        return (MutableFieldDef) tree.view(construct(FIELD, tree.strings.id(primaryName), tree.strings.id(primaryDescriptor)));
+    }
+    
+    @Override
+    public MutableMethodDef constructMethod(String primaryName, String primaryDescriptor) {
+        return (MutableMethodDef) tree.view(construct(METHOD, tree.strings.id(primaryName), tree.strings.id(primaryDescriptor)));
+    }
+    
+    @Override
+    public MappingsEntryType getType() {
+        return MappingsEntryType.CLASS;
+    }
+}
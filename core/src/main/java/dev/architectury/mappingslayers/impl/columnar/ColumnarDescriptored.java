@@ -0,0 +1,65 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import dev.architectury.mappingslayers.api.mutable.MutableDescriptored;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+
+import static dev.architectury.mappingslayers.impl.columnar.ColumnarTree.KEY;
+
+public abstract class ColumnarDescriptored extends ColumnarMapped implements MutableDescriptored {
+    protected ColumnarDescriptored(ColumnarTree tree, int record) {
+        super(tree, record);
+    }
+    
+    @Override
+    public void setPrimaryDescriptor(String descriptor) {
+        tree.setKey(record, tree.strings.id(descriptor));
+    }
+    
+    @Override
+    public void setDescriptor(String namespace, String descriptor) {
+        setDescriptor(tree.applyAsInt(namespace), descriptor);
+    }
+    
+    @Override
+    public void setDescriptor(int namespace, String descriptor) {
+        if (namespace == 0) {
+            setPrimaryDescriptor(descriptor);
+        } else {
+            setPrimaryDescriptor(MappingsUtils.remapDescriptorToPrimary(tree, descriptor, namespace));
+        }
+    }
+    
+    @Override
+    public String getDescriptor(String namespace) {
+        return getDescriptor(tree.applyAsInt(namespace));
+    }
+    
+    @Override
+    public String getDescriptor(int namespace) {
+        int descriptor = tree.records.get(record, KEY);
+        if (namespace == 0) {
+            return tree.string(descriptor);
+        } else {
+            return tree.remapDescriptor(descriptor, namespace);
+        }
+    }
+}
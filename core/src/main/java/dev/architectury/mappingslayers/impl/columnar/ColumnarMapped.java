@@ -0,0 +1,100 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import dev.architectury.mappingslayers.api.mutable.MutableMapped;
+import org.jetbrains.annotations.Nullable;
+
+import static dev.architectury.mappingslayers.impl.columnar.ColumnarTree.NAMES;
+
+/**
+ * A flyweight view of a record of a {@link ColumnarTree}, views of the same record are equal.
+ */
+public abstract class ColumnarMapped implements MutableMapped {
+    protected final ColumnarTree tree;
+    protected final int record;
+    
+    protected ColumnarMapped(ColumnarTree tree, int record) {
+        this.tree = tree;
+        this.record = record;
+    }
+    
+    @Override
+    public String getName(String namespace) {
+        return getName(tree.applyAsInt(namespace));
+    }
+    
+    @Override
+    public String getRawName(String namespace) {
+        return getRawName(tree.applyAsInt(namespace));
+    }
+    
+    @Override
+    public String getName(int namespace) {
+        if (namespace >= tree.namespaces())
+            namespace = tree.namespaces() - 1;
+        int name;
+        while ((name = tree.records.get(record, NAMES + namespace)) == 0) {
+            if (namespace == 0)
+                return "";
+            namespace--;
+        }
+        return tree.string(name);
+    }
+    
+    @Override
+    public String getRawName(int namespace) {
+        return tree.string(tree.records.get(record, NAMES + namespace));
+    }
+    
+    @Override
+    public void setName(String namespace, String name) {
+        setName(tree.applyAsInt(namespace), name);
+    }
+    
+    @Override
+    public void setName(int namespace, String name) {
+        tree.setName(record, namespace, name);
+    }
+    
+    @Nullable
+    @Override
+    public String getComment() {
+        return tree.getComment(record);
+    }
+    
+    @Override
+    public void setComment(@Nullable String comment) {
+        tree.setComment(record, comment);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ColumnarMapped)) return false;
+        ColumnarMapped that = (ColumnarMapped) o;
+        return tree == that.tree && record == that.record;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(tree) + record;
+    }
+}
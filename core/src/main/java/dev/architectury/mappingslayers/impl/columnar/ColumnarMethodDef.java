@@ -0,0 +1,81 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableParameterDef;
+import net.fabricmc.mapping.tree.LocalVariableDef;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static dev.architectury.mappingslayers.impl.columnar.ColumnarTree.*;
+
+/**
+ * A method of a {@link ColumnarTree}, local variables are not kept.
+ */
+public class ColumnarMethodDef extends ColumnarDescriptored implements MutableMethodDef {
+    public ColumnarMethodDef(ColumnarTree tree, int record) {
+        super(tree, record);
+    }
+    
+    @Override
+    public List<MutableParameterDef> getParametersMutable() {
+        return new ChildList<>(tree, record, PARAMETER);
+    }
+    
+    @Override
+    public Collection<LocalVariableDef> getLocalVariables() {
+        return Collections.emptyList();
+    }
+    
+    @Override
+    public MutableParameterDef getOrCreateParameter(int lvIndex, String primaryName) {
+        int parameter = tree.find(record, PARAMETER, 0, lvIndex);
+        if (parameter == NONE) {
+            parameter = tree.allocate(PARAMETER);
+            tree.records.set(parameter, KEY, lvIndex);
+            tree.records.set(parameter, NAMES, tree.strings.id(primaryName));
+            // keep the parameters ordered by local variable index, they are usually added in order
+            int next = NONE;
+            for (int previous = tree.records.get(record, CHILDREN + LAST); previous != NONE
+                    && tree.records.get(previous, KEY) > lvIndex; previous = tree.records.get(previous, PREV)) {
+                next = previous;
+            }
+            tree.link(record, next, parameter);
+        }
+        return (MutableParameterDef) tree.view(parameter);
+    }
+    
+    @Override
+    public MutableParameterDef constructParameter(int lvIndex, String primaryName) {
+        int parameter = tree.allocate(PARAMETER);
+        tree.records.set(parameter, KEY, lvIndex);
+        tree.records.set(parameter, NAMES, tree.strings.id(primaryName));
+        return (MutableParameterDef) tree.view(parameter);
+    }
+    
+    @Override
+    public MappingsEntryType getType() {
+        return MappingsEntryType.METHOD;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Creates the stores of a {@link ColumnarTree}, closing the storage drops the memory of the stores it created.
+ */
+public abstract class ColumnarStorage implements Closeable {
+    public abstract RecordStore createRecords(int width);
+    
+    public abstract StringTable createStrings();
+    
+    public abstract IntArray createInts(int length);
+    
+    @Override
+    public void close() throws IOException {
+    }
+    
+    /**
+     * Returns the storage keeping the stores on the heap.
+     */
+    public static ColumnarStorage heap() {
+        return HeapStorage.INSTANCE;
+    }
+    
+    /**
+     * Returns the storage chosen by the options.
+     */
+    public static ColumnarStorage create(MappingsLoadOptions options) {
+        if (!options.isOffHeap()) return heap();
+        Path directory = options.getOffHeapDirectory();
+        if (directory == null) return new OffHeapStorage();
+        try {
+            return new OffHeapStorage(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static class HeapStorage extends ColumnarStorage {
+        private static final HeapStorage INSTANCE = new HeapStorage();
+        
+        @Override
+        public RecordStore createRecords(int width) {
+            return new HeapRecordStore(width);
+        }
+        
+        @Override
+        public StringTable createStrings() {
+            return new HeapStringTable();
+        }
+        
+        @Override
+        public IntArray createInts(int length) {
+            return new HeapIntArray(length);
+        }
+    }
+}
@@ -0,0 +1,592 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMapped;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyMetadata;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.DescriptorTemplate;
+import dev.architectury.mappingslayers.impl.tiny.TinyMetadataImpl;
+import net.fabricmc.mapping.reader.v2.TinyMetadata;
+import net.fabricmc.mapping.tree.ClassDef;
+import net.fabricmc.mapping.tree.Descriptored;
+import net.fabricmc.mapping.tree.FieldDef;
+import net.fabricmc.mapping.tree.Mapped;
+import net.fabricmc.mapping.tree.MethodDef;
+import net.fabricmc.mapping.tree.ParameterDef;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * A {@link MutableTinyTree} keeping its entries as records of ints in a {@link RecordStore}, names are ids in a shared
+ * {@link StringTable}. The entries returned by the tree are flyweight views over the records.
+ * <p>
+ * Each record holds its kind, its owner, the links of its children and of its siblings, its key (the descriptor of members,
+ * the local variable index of parameters), its comment and one name per namespace.
+ * Entries of this tree added to a list of this tree are moved, other entries are copied into the tree.
+ * The records of removed entries are not reclaimed.
+ * <p>
+ * The stores of the tree are created by a {@link ColumnarStorage}, closing the tree closes its storage.
+ */
+public class ColumnarTree implements MutableTinyTree, ToIntFunction<String>, Closeable {
+    static final int KIND = 0;
+    static final int OWNER = 1;
+    // the first, last and count of the children, fields have their own list in classes
+    static final int CHILDREN = 2;
+    static final int FIELDS = 5;
+    static final int FIRST = 0;
+    static final int LAST = 1;
+    static final int COUNT = 2;
+    static final int NEXT = 8;
+    static final int PREV = 9;
+    static final int KEY = 10;
+    // the id + 1 of the comment, 0 for no comment
+    static final int COMMENT = 11;
+    static final int NAMES = 12;
+    
+    static final int ROOT = 0;
+    static final int CLASS = 1;
+    static final int FIELD = 2;
+    static final int METHOD = 3;
+    static final int PARAMETER = 4;
+    
+    static final int NONE = -1;
+    
+    private final MutableTinyMetadata metadata;
+    private final ColumnarStorage storage;
+    final RecordStore records;
+    final StringTable strings;
+    private final int namespaces;
+    private final ChildList<MutableClassDef> classes;
+    private final Map<String, MutableClassDef> classMap = new ClassMap();
+    // the ids + 1 of the linked records, keyed by owner, kind, primary name and key
+    private IntArray index;
+    private int indexSize;
+    // the ids + 1 of the classes by name in the other namespaces, built on the first lookup
+    private final IntArray[] classIndexes;
+    private final int[] classIndexSizes;
+    // the descriptors remapped to the other namespaces by descriptor id and namespace, cleared when the classes change
+    private final Map<Long, String> descriptorCache = new DescriptorCache();
+    
+    public ColumnarTree(TinyMetadata metadata) {
+        this(metadata, ColumnarStorage.heap());
+    }
+    
+    public ColumnarTree(TinyMetadata metadata, Stream<ClassDef> classes) {
+        this(metadata);
+        classes.forEach(classDef -> link(ROOT, NONE, copy(classDef, CLASS)));
+    }
+    
+    public ColumnarTree(TinyMetadata metadata, ColumnarStorage storage) {
+        this.metadata = new TinyMetadataImpl(metadata);
+        this.namespaces = metadata.getNamespaces().size();
+        this.storage = storage;
+        this.records = storage.createRecords(NAMES + namespaces);
+        this.strings = storage.createStrings();
+        this.index = storage.createInts(64);
+        this.classIndexes = new IntArray[namespaces];
+        this.classIndexSizes = new int[namespaces];
+        this.classes = new ChildList<>(this, allocate(ROOT), CLASS);
+    }
+    
+    /**
+     * Closes the storage of the tree, the tree and its entries must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        storage.close();
+    }
+    
+    @Override
+    public MutableTinyMetadata getMetadata() {
+        return metadata;
+    }
+    
+    @Override
+    public List<MutableClassDef> getClassesMutable() {
+        return classes;
+    }
+    
+    /**
+     * Returns a view of the classes by primary name, classes are looked up in the index of the tree.
+     * Entries can be removed from the view but not added.
+     */
+    @Override
+    public Map<String, MutableClassDef> getDefaultNamespaceClassMapMutable() {
+        return classMap;
+    }
+    
+    @Override
+    @Nullable
+    public MutableClassDef findClass(int namespace, String name) {
+        int id = strings.find(name);
+        if (id <= 0) return null;
+        if (namespace == 0) {
+            int record = find(ROOT, CLASS, id, 0);
+            return record == NONE ? null : (MutableClassDef) view(record);
+        }
+        IntArray index = classIndexes[namespace];
+        if (index == null) {
+            int capacity = 64;
+            while (capacity < records.get(ROOT, CHILDREN + COUNT) * 4L) capacity <<= 1;
+            index = classIndexes[namespace] = storage.createInts(capacity);
+            classIndexSizes[namespace] = 0;
+            for (int record = records.get(ROOT, CHILDREN + FIRST); record != NONE; record = records.get(record, NEXT)) {
+                indexClass(namespace, record);
+            }
+        }
+        int mask = index.length() - 1;
+        for (int i = StringTable.mix(id) & mask; ; i = (i + 1) & mask) {
+            int slot = index.get(i);
+            if (slot == 0) return null;
+            if (records.get(slot - 1, NAMES + namespace) == id) return (MutableClassDef) view(slot - 1);
+        }
+    }
+    
+    /**
+     * Adds a class to the index of a namespace unless a class before it has the same name.
+     */
+    private void indexClass(int namespace, int record) {
+        IntArray index = classIndexes[namespace];
+        int id = records.get(record, NAMES + namespace);
+        if (id == 0) return;
+        if ((long) (classIndexSizes[namespace] + 1) * 2 > index.length()) {
+            dropClassIndex(namespace);
+            return;
+        }
+        int mask = index.length() - 1;
+        for (int i = StringTable.mix(id) & mask; ; i = (i + 1) & mask) {
+            int slot = index.get(i);
+            if (slot == 0) {
+                index.set(i, record + 1);
+                classIndexSizes[namespace]++;
+                return;
+            }
+            if (records.get(slot - 1, NAMES + namespace) == id) return;
+        }
+    }
+    
+    /**
+     * Remaps a primary descriptor to another namespace, the recently used results are cached until the classes change.
+     */
+    String remapDescriptor(int descriptor, int namespace) {
+        long key = (long) descriptor << 32 | namespace;
+        String remapped = descriptorCache.get(key);
+        if (remapped == null) {
+            DescriptorTemplate template = DescriptorTemplate.parse(strings.get(descriptor));
+            remapped = template.format(i -> {
+                String name = template.getClassName(i);
+                int id = strings.find(name);
+                int record = id <= 0 ? NONE : find(ROOT, CLASS, id, 0);
+                return record == NONE ? name : view(record).getName(namespace);
+            });
+            descriptorCache.put(key, remapped);
+        }
+        return remapped;
+    }
+    
+    private void dropClassIndex(int namespace) {
+        if (classIndexes[namespace] != null) {
+            classIndexes[namespace].release();
+            classIndexes[namespace] = null;
+        }
+    }
+    
+    @Override
+    public int applyAsInt(String value) {
+        return metadata.index(value);
+    }
+    
+    @Override
+    public MutableClassDef getOrCreateClass(String primaryName) {
+        int name = strings.id(primaryName);
+        int record = find(ROOT, CLASS, name, 0);
+        if (record == NONE) {
+            record = allocate(CLASS);
+            records.set(record, NAMES, name);
+            link(ROOT, NONE, record);
+        }
+        return (MutableClassDef) view(record);
+    }
+    
+    @Override
+    public MutableClassDef constructClass(String primaryName) {
+        int record = allocate(CLASS);
+        records.set(record, NAMES, strings.id(primaryName));
+        return (MutableClassDef) view(record);
+    }
+    
+    MutableMapped view(int record) {
+        switch (records.get(record, KIND)) {
+            case CLASS:
+                return new ColumnarClassDef(this, record);
+            case FIELD:
+                return new ColumnarFieldDef(this, record);
+            case METHOD:
+                return new ColumnarMethodDef(this, record);
+            case PARAMETER:
+                return new ColumnarParameterDef(this, record);
+            default:
+                throw new IllegalStateException("Record " + record + " is not an entry!");
+        }
+    }
+    
+    int namespaces() {
+        return namespaces;
+    }
+    
+    int allocate(int kind) {
+        int record = records.allocate();
+        records.set(record, KIND, kind);
+        records.set(record, OWNER, NONE);
+        records.set(record, CHILDREN + FIRST, NONE);
+        records.set(record, CHILDREN + LAST, NONE);
+        records.set(record, FIELDS + FIRST, NONE);
+        records.set(record, FIELDS + LAST, NONE);
+        records.set(record, NEXT, NONE);
+        records.set(record, PREV, NONE);
+        return record;
+    }
+    
+    String string(int id) {
+        return strings.get(id);
+    }
+    
+    @Nullable
+    String getComment(int record) {
+        int comment = records.get(record, COMMENT);
+        return comment == 0 ? null : strings.get(comment - 1);
+    }
+    
+    void setComment(int record, @Nullable String comment) {
+        records.set(record, COMMENT, comment == null ? 0 : strings.id(comment) + 1);
+    }
+    
+    void setName(int record, int namespace, String name) {
+        int id = strings.id(name);
+        if (records.get(record, KIND) == CLASS && records.get(record, NAMES + namespace) != id) descriptorCache.clear();
+        if (namespace == 0) {
+            setKeyField(record, NAMES, id);
+        } else if (records.get(record, NAMES + namespace) != id) {
+            records.set(record, NAMES + namespace, id);
+            if (records.get(record, KIND) == CLASS && records.get(record, OWNER) != NONE) dropClassIndex(namespace);
+        }
+    }
+    
+    void setKey(int record, int key) {
+        setKeyField(record, KEY, key);
+    }
+    
+    private void setKeyField(int record, int field, int value) {
+        if (records.get(record, field) == value) return;
+        boolean indexed = records.get(record, OWNER) != NONE;
+        if (indexed) unindex(record);
+        records.set(record, field, value);
+        if (indexed) index(record);
+    }
+    
+    /**
+     * Returns the field of the first child of the list holding the entries of {@code kind}.
+     */
+    static int head(int kind) {
+        return kind == FIELD ? FIELDS : CHILDREN;
+    }
+    
+    /**
+     * Links a record as a child of {@code owner}, before {@code next} or last if it is {@link #NONE}.
+     */
+    void link(int owner, int next, int record) {
+        int head = head(records.get(record, KIND));
+        int prev = next == NONE ? records.get(owner, head + LAST) : records.get(next, PREV);
+        records.set(record, OWNER, owner);
+        records.set(record, PREV, prev);
+        records.set(record, NEXT, next);
+        if (prev == NONE) {
+            records.set(owner, head + FIRST, record);
+        } else {
+            records.set(prev, NEXT, record);
+        }
+        if (next == NONE) {
+            records.set(owner, head + LAST, record);
+        } else {
+            records.set(next, PREV, record);
+        }
+        records.set(owner, head + COUNT, records.get(owner, head + COUNT) + 1);
+        index(record);
+        if (owner == ROOT) {
+            descriptorCache.clear();
+            for (int namespace = 1; namespace < namespaces; namespace++) {
+                if (classIndexes[namespace] == null) continue;
+                if (next == NONE) {
+                    indexClass(namespace, record);
+                } else {
+                    dropClassIndex(namespace);
+                }
+            }
+        }
+    }
+    
+    void unlink(int record) {
+        int owner = records.get(record, OWNER);
+        if (owner == NONE) return;
+        unindex(record);
+        int head = head(records.get(record, KIND));
+        int prev = records.get(record, PREV);
+        int next = records.get(record, NEXT);
+        if (prev == NONE) {
+            records.set(owner, head + FIRST, next);
+        } else {
+            records.set(prev, NEXT, next);
+        }
+        if (next == NONE) {
+            records.set(owner, head + LAST, prev);
+        } else {
+            records.set(next, PREV, prev);
+        }
+        records.set(owner, head + COUNT, records.get(owner, head + COUNT) - 1);
+        records.set(record, OWNER, NONE);
+        records.set(record, PREV, NONE);
+        records.set(record, NEXT, NONE);
+        if (owner == ROOT) {
+            descriptorCache.clear();
+            for (int namespace = 1; namespace < namespaces; namespace++) {
+                dropClassIndex(namespace);
+            }
+        }
+    }
+    
+    /**
+     * Returns the record of an entry of this tree, or {@link #NONE} for other entries.
+     */
+    int recordOf(Object entry) {
+        if (entry instanceof ColumnarMapped && ((ColumnarMapped) entry).tree == this) {
+            return ((ColumnarMapped) entry).record;
+        }
+        return NONE;
+    }
+    
+    /**
+     * Returns the record of an entry to add as a child of {@code owner}, entries of this tree are unlinked
+     * from their current owner and other entries are copied.
+     */
+    int adopt(Object entry, int kind) {
+        int record = recordOf(entry);
+        if (record == NONE) {
+            return copy((Mapped) entry, kind);
+        }
+        if (records.get(record, KIND) != kind) {
+            throw new IllegalArgumentException("Cannot add " + entry + " here!");
+        }
+        unlink(record);
+        return record;
+    }
+    
+    private int copy(Mapped entry, int kind) {
+        int record = allocate(kind);
+        List<String> namespaces = metadata.getNamespaces();
+        for (int i = 0; i < this.namespaces; i++) {
+            records.set(record, NAMES + i, strings.id(entry.getRawName(namespaces.get(i))));
+        }
+        setComment(record, entry.getComment());
+        if (entry instanceof Descriptored) {
+            records.set(record, KEY, strings.id(((Descriptored) entry).getDescriptor(namespaces.get(0))));
+        }
+        if (entry instanceof ParameterDef) {
+            records.set(record, KEY, ((ParameterDef) entry).getLocalVariableIndex());
+        }
+        if (entry instanceof ClassDef) {
+            for (FieldDef field : ((ClassDef) entry).getFields()) {
+                link(record, NONE, copy(field, FIELD));
+            }
+            for (MethodDef method : ((ClassDef) entry).getMethods()) {
+                link(record, NONE, copy(method, METHOD));
+            }
+        }
+        if (entry instanceof MethodDef) {
+            for (ParameterDef parameter : ((MethodDef) entry).getParameters()) {
+                link(record, NONE, copy(parameter, PARAMETER));
+            }
+        }
+        return record;
+    }
+    
+    /**
+     * Finds a linked record, parameters are found by their key alone.
+     */
+    int find(int owner, int kind, int name, int key) {
+        if (kind == PARAMETER) name = 0;
+        int mask = index.length() - 1;
+        for (int i = hash(owner, kind, name, key) & mask; ; i = (i + 1) & mask) {
+            int slot = index.get(i);
+            if (slot == 0) return NONE;
+            int record = slot - 1;
+            if (records.get(record, OWNER) == owner && records.get(record, KIND) == kind
+                && indexName(record) == name && records.get(record, KEY) == key) {
+                return record;
+            }
+        }
+    }
+    
+    private int indexName(int record) {
+        return records.get(record, KIND) == PARAMETER ? 0 : records.get(record, NAMES);
+    }
+    
+    private int hash(int record) {
+        return hash(records.get(record, OWNER), records.get(record, KIND), indexName(record), records.get(record, KEY));
+    }
+    
+    private static int hash(int owner, int kind, int name, int key) {
+        int hash = owner;
+        hash = 31 * hash + kind;
+        hash = 31 * hash + name;
+        hash = 31 * hash + key;
+        return StringTable.mix(hash);
+    }
+    
+    private void index(int record) {
+        if ((long) (indexSize + 1) * 2 > index.length()) {
+            IntArray old = index;
+            index = storage.createInts(old.length() * 2);
+            indexSize = 0;
+            for (int i = 0; i < old.length(); i++) {
+                int slot = old.get(i);
+                if (slot != 0) index(slot - 1);
+            }
+            old.release();
+        }
+        int mask = index.length() - 1;
+        int i = hash(record) & mask;
+        while (index.get(i) != 0) i = (i + 1) & mask;
+        index.set(i, record + 1);
+        indexSize++;
+    }
+    
+    private void unindex(int record) {
+        int mask = index.length() - 1;
+        int i = hash(record) & mask;
+        while (index.get(i) != record + 1) {
+            if (index.get(i) == 0) return;
+            i = (i + 1) & mask;
+        }
+        // shift back the following slots which would no longer be reachable
+        for (int j = (i + 1) & mask; index.get(j) != 0; j = (j + 1) & mask) {
+            int home = hash(index.get(j) - 1) & mask;
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                index.set(i, index.get(j));
+                i = j;
+            }
+        }
+        index.set(i, 0);
+        indexSize--;
+    }
+    
+    private class ClassMap extends AbstractMap<String, MutableClassDef> {
+        @Override
+        public MutableClassDef get(Object key) {
+            int record = record(key);
+            return record == NONE ? null : (MutableClassDef) view(record);
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return record(key) != NONE;
+        }
+        
+        @Override
+        public MutableClassDef remove(Object key) {
+            int record = record(key);
+            if (record == NONE) return null;
+            unlink(record);
+            return (MutableClassDef) view(record);
+        }
+        
+        @Override
+        public int size() {
+            return classes.size();
+        }
+        
+        private int record(Object key) {
+            if (!(key instanceof String)) return NONE;
+            int name = strings.find((String) key);
+            return name < 0 ? NONE : find(ROOT, CLASS, name, 0);
+        }
+        
+        @Override
+        public Set<Entry<String, MutableClassDef>> entrySet() {
+            return new AbstractSet<Entry<String, MutableClassDef>>() {
+                @Override
+                public Iterator<Entry<String, MutableClassDef>> iterator() {
+                    Iterator<MutableClassDef> iterator = classes.iterator();
+                    return new Iterator<Entry<String, MutableClassDef>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+                        
+                        @Override
+                        public Entry<String, MutableClassDef> next() {
+                            MutableClassDef classDef = iterator.next();
+                            return new SimpleImmutableEntry<>(classDef.getName(0), classDef);
+                        }
+                        
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    return classes.size();
+                }
+            };
+        }
+    }
+    
+    /**
+     * A cache of the recently remapped descriptors, bounded so that it does not grow with the tree.
+     */
+    private static final class DescriptorCache extends LinkedHashMap<Long, String> {
+        private static final long serialVersionUID = 1L;
+        private static final int CAPACITY = 4096;
+        
+        DescriptorCache() {
+            super(16, 0.75F, true);
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > CAPACITY;
+        }
+    }
+}
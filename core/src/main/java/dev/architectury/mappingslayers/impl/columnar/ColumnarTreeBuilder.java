@@ -0,0 +1,149 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.*;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.mappingslayers.impl.mappings.TreeBuilder;
+import net.fabricmc.mapping.reader.v2.TinyMetadata;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+
+/**
+ * A {@link MappingsVisitor} building a {@link ColumnarTree}, local variables are not kept.
+ */
+public class ColumnarTreeBuilder implements TreeBuilder {
+    private final Function<TinyMetadata, ColumnarTree> factory;
+    private @MonotonicNonNull ColumnarTree tree;
+    // the entries of the open levels, null for the entries which are not kept
+    private MutableMapped[] stack = new MutableMapped[4];
+    private int depth;
+    private @MonotonicNonNull MutableClassDef inClass = null;
+    private @MonotonicNonNull MutableMethodDef inMethod = null;
+    
+    public ColumnarTreeBuilder() {
+        this(ColumnarTree::new);
+    }
+    
+    /**
+     * @param factory creates the tree once the header is visited
+     */
+    public ColumnarTreeBuilder(Function<TinyMetadata, ColumnarTree> factory) {
+        this.factory = factory;
+    }
+    
+    @Override
+    public ColumnarTree getTree() {
+        return tree;
+    }
+    
+    @Override
+    public void visitHeader(TinyMetadata metadata) {
+        this.tree = factory.apply(metadata);
+    }
+    
+    @Override
+    public boolean visitClass(String[] names) {
+        MutableClassDef clz = tree.getOrCreateClass(names[0]);
+        for (int i = 1; i < names.length; i++) {
+            clz.setName(i, names[i]);
+        }
+        inClass = clz;
+        push(clz);
+        return true;
+    }
+    
+    @Override
+    public boolean visitField(String descriptor, String[] names) {
+        if (inClass == null)
+            throw new IllegalStateException();
+        
+        MutableFieldDef field = inClass.getOrCreateField(names[0], descriptor);
+        for (int i = 1; i < names.length; i++) {
+            field.setName(i, names[i]);
+        }
+        push(field);
+        return true;
+    }
+    
+    @Override
+    public boolean visitMethod(String descriptor, String[] names) {
+        if (inClass == null)
+            throw new IllegalStateException();
+        
+        MutableMethodDef method = inClass.getOrCreateMethod(names[0], descriptor);
+        for (int i = 1; i < names.length; i++) {
+            method.setName(i, names[i]);
+        }
+        inMethod = method;
+        push(method);
+        return true;
+    }
+    
+    @Override
+    public boolean visitParameter(int lvIndex, String[] names) {
+        if (inMethod == null)
+            throw new IllegalStateException();
+        
+        MutableParameterDef par = inMethod.getOrCreateParameter(lvIndex, names[0]);
+        for (int i = 0; i < names.length; i++) {
+            par.setName(i, names[i]);
+        }
+        push(par);
+        return true;
+    }
+    
+    @Override
+    public boolean visitLocalVariable(int lvIndex, int lvStartOffset, int lvtIndex, String[] names) {
+        if (inMethod == null)
+            throw new IllegalStateException();
+        
+        push(null);
+        return false;
+    }
+    
+    @Override
+    public void visitComment(String comment) {
+        if (depth == 0)
+            throw new IllegalStateException("Nothing to append comment on!");
+        
+        MutableMapped mapped = stack[depth - 1];
+        if (mapped != null) {
+            mapped.setComment(comment);
+        }
+    }
+    
+    @Override
+    public void visitEntryEnd(MappingsEntryType type) {
+        stack[--depth] = null;
+    }
+    
+    private void push(@Nullable MutableMapped mapped) {
+        if (depth == stack.length) {
+            MutableMapped[] newStack = new MutableMapped[depth * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+        stack[depth++] = mapped;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import java.util.Arrays;
+
+/**
+ * A {@link RecordStore} keeping each field in its own int array.
+ */
+public class HeapRecordStore extends RecordStore {
+    private final int[][] columns;
+    private int size;
+    
+    public HeapRecordStore(int width) {
+        super(width);
+        this.columns = new int[width][16];
+    }
+    
+    @Override
+    public int get(int record, int field) {
+        return columns[field][record];
+    }
+    
+    @Override
+    public void set(int record, int field, int value) {
+        columns[field][record] = value;
+    }
+    
+    @Override
+    public int allocate() {
+        if (size == columns[0].length) {
+            int capacity = size + (size >> 1);
+            for (int i = 0; i < width; i++) {
+                columns[i] = Arrays.copyOf(columns[i], capacity);
+            }
+        }
+        return size++;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+}
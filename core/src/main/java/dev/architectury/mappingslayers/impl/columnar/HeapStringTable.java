@@ -0,0 +1,125 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link StringTable} packing the UTF-8 bytes of its strings in a single array, strings are decoded when they are read.
+ * Strings are looked up through an open addressing table of ids.
+ */
+public class HeapStringTable extends StringTable {
+    private byte[] bytes = new byte[1024];
+    // the start of each string in bytes, followed by the end of the last string
+    private int[] offsets = new int[64];
+    private int[] hashes = new int[64];
+    private int size;
+    // the ids + 1 of the strings, 0 for empty slots
+    private int[] table = new int[128];
+    
+    public HeapStringTable() {
+        size = 1;
+    }
+    
+    @Override
+    public int id(String str) {
+        if (str.isEmpty()) return 0;
+        int hash = str.hashCode();
+        int mask = table.length - 1;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int slot = table[i];
+            if (slot == 0) {
+                int id = add(str, hash);
+                table[i] = id + 1;
+                if (size * 2 > table.length) rehash();
+                return id;
+            }
+            if (hashes[slot - 1] == hash && matches(slot - 1, str)) {
+                return slot - 1;
+            }
+        }
+    }
+    
+    @Override
+    public int find(String str) {
+        if (str.isEmpty()) return 0;
+        int hash = str.hashCode();
+        int mask = table.length - 1;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int slot = table[i];
+            if (slot == 0) return -1;
+            if (hashes[slot - 1] == hash && matches(slot - 1, str)) return slot - 1;
+        }
+    }
+    
+    private int add(String str, int hash) {
+        byte[] encoded = str.getBytes(StandardCharsets.UTF_8);
+        int start = offsets[size];
+        if (start + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, start + encoded.length));
+        }
+        System.arraycopy(encoded, 0, bytes, start, encoded.length);
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        hashes[size] = hash;
+        offsets[size + 1] = start + encoded.length;
+        return size++;
+    }
+    
+    private boolean matches(int id, String str) {
+        int start = offsets[id];
+        int length = offsets[id + 1] - start;
+        if (length == str.length()) {
+            // ASCII strings are compared without being encoded
+            for (int i = 0; i < length; i++) {
+                char c = str.charAt(i);
+                if (c >= 0x80) return Arrays.equals(str.getBytes(StandardCharsets.UTF_8), Arrays.copyOfRange(bytes, start, start + length));
+                if (bytes[start + i] != c) return false;
+            }
+            return true;
+        }
+        return length > str.length() && Arrays.equals(str.getBytes(StandardCharsets.UTF_8), Arrays.copyOfRange(bytes, start, start + length));
+    }
+    
+    private void rehash() {
+        int[] table = new int[this.table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 1; id < size; id++) {
+            int i = mix(hashes[id]) & mask;
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = id + 1;
+        }
+        this.table = table;
+    }
+    
+    @Override
+    public String get(int id) {
+        int start = offsets[id];
+        return new String(bytes, start, offsets[id + 1] - start, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+/**
+ * A fixed length array of ints, the ints are {@code 0} once created.
+ */
+public abstract class IntArray {
+    public abstract int get(int index);
+    
+    public abstract void set(int index, int value);
+    
+    public abstract int length();
+    
+    /**
+     * Gives back the memory of the array to its storage, the array must not be used afterwards.
+     */
+    public void release() {
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+/**
+ * An {@link IntArray} over the segments of an {@link OffHeapStorage}.
+ */
+class OffHeapIntArray extends IntArray {
+    private final int length;
+    private final Segments segments;
+    
+    OffHeapIntArray(int length, Segments segments) {
+        this.length = length;
+        this.segments = segments;
+        segments.ensure((long) length << 2);
+    }
+    
+    @Override
+    public int get(int index) {
+        return segments.getInt((long) index << 2);
+    }
+    
+    @Override
+    public void set(int index, int value) {
+        segments.putInt((long) index << 2, value);
+    }
+    
+    @Override
+    public int length() {
+        return length;
+    }
+    
+    @Override
+    public void release() {
+        segments.release();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+/**
+ * A {@link RecordStore} keeping its records one after another in the segments of an {@link OffHeapStorage}.
+ */
+class OffHeapRecordStore extends RecordStore {
+    private final Segments segments;
+    private int size;
+    
+    OffHeapRecordStore(int width, Segments segments) {
+        super(width);
+        this.segments = segments;
+    }
+    
+    private long position(int record, int field) {
+        return ((long) record * width + field) << 2;
+    }
+    
+    @Override
+    public int get(int record, int field) {
+        return segments.getInt(position(record, field));
+    }
+    
+    @Override
+    public void set(int record, int field, int value) {
+        segments.putInt(position(record, field), value);
+    }
+    
+    @Override
+    public int allocate() {
+        segments.ensure(position(size + 1, 0));
+        return size++;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A {@link ColumnarStorage} keeping the stores in segments outside of the heap, either direct buffers or
+ * regions mapped from a temporary file. Released full size segments are reused by the next stores which grow.
+ * The heap only holds the buffer objects of the segments, one per megabyte of data.
+ */
+public class OffHeapStorage extends ColumnarStorage {
+    static final int SEGMENT_SHIFT = 20;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    // the size of the first segment of an empty store
+    static final int MIN_SEGMENT_SIZE = 1 << 10;
+    
+    @Nullable
+    private final FileChannel channel;
+    private final Deque<ByteBuffer> free = new ArrayDeque<>();
+    private long fileSize;
+    private boolean closed;
+    
+    /**
+     * Creates a storage allocating direct buffers.
+     */
+    public OffHeapStorage() {
+        this.channel = null;
+    }
+    
+    /**
+     * Creates a storage mapping its segments from a temporary file, the file is deleted when the storage is closed.
+     *
+     * @param directory the directory of the temporary file
+     */
+    public OffHeapStorage(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "mappings", ".bin");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+    
+    @Override
+    public RecordStore createRecords(int width) {
+        return new OffHeapRecordStore(width, new Segments(this));
+    }
+    
+    @Override
+    public StringTable createStrings() {
+        return new OffHeapStringTable(this);
+    }
+    
+    @Override
+    public IntArray createInts(int length) {
+        return new OffHeapIntArray(length, new Segments(this));
+    }
+    
+    /**
+     * Returns a segment of a power of two size up to {@link #SEGMENT_SIZE}, filled with zeros.
+     */
+    ByteBuffer allocate(int size) {
+        if (closed) throw new IllegalStateException("Storage is closed!");
+        ByteBuffer segment = size == SEGMENT_SIZE ? free.poll() : null;
+        if (segment != null) {
+            for (int i = 0; i < SEGMENT_SIZE; i += 8) {
+                segment.putLong(i, 0);
+            }
+            return segment;
+        }
+        if (channel == null) {
+            segment = ByteBuffer.allocateDirect(size);
+        } else {
+            try {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, fileSize, size);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to map " + size + " bytes at " + fileSize + "!", e);
+            }
+            fileSize += size;
+        }
+        return segment.order(ByteOrder.nativeOrder());
+    }
+    
+    /**
+     * Gives back a segment, only full size segments are reused.
+     */
+    void release(ByteBuffer segment) {
+        if (!closed && segment.capacity() == SEGMENT_SIZE) {
+            ((Buffer) segment).clear();
+            free.push(segment);
+        }
+    }
+    
+    /**
+     * Frees the segments, the stores created by this storage must not be used afterwards.
+     * The memory of the segments is given back once they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        free.clear();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
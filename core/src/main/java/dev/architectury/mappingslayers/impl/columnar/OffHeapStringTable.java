@@ -0,0 +1,142 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link StringTable} keeping the UTF-8 bytes of its strings, their entries and its lookup table in the segments of
+ * an {@link OffHeapStorage}.
+ */
+class OffHeapStringTable extends StringTable {
+    // the position of the bytes, their length and the hash of the string
+    private static final int ENTRY = 16;
+    
+    private final OffHeapStorage storage;
+    private final Segments bytes;
+    private final Segments entries;
+    private long end;
+    private int size;
+    // the ids + 1 of the strings, 0 for empty slots
+    private IntArray table;
+    
+    OffHeapStringTable(OffHeapStorage storage) {
+        this.storage = storage;
+        this.bytes = new Segments(storage);
+        this.entries = new Segments(storage);
+        this.table = storage.createInts(1024);
+        this.entries.ensure(ENTRY);
+        this.size = 1;
+    }
+    
+    @Override
+    public int id(String str) {
+        if (str.isEmpty()) return 0;
+        int hash = str.hashCode();
+        int mask = table.length() - 1;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int slot = table.get(i);
+            if (slot == 0) {
+                int id = add(str, hash);
+                table.set(i, id + 1);
+                if ((long) size * 2 > table.length()) rehash();
+                return id;
+            }
+            if (hash(slot - 1) == hash && matches(slot - 1, str)) {
+                return slot - 1;
+            }
+        }
+    }
+    
+    @Override
+    public int find(String str) {
+        if (str.isEmpty()) return 0;
+        int hash = str.hashCode();
+        int mask = table.length() - 1;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int slot = table.get(i);
+            if (slot == 0) return -1;
+            if (hash(slot - 1) == hash && matches(slot - 1, str)) return slot - 1;
+        }
+    }
+    
+    private int add(String str, int hash) {
+        byte[] encoded = str.getBytes(StandardCharsets.UTF_8);
+        bytes.ensure(end + encoded.length);
+        bytes.put(end, encoded);
+        long entry = (long) size * ENTRY;
+        entries.ensure(entry + ENTRY);
+        entries.putLong(entry, end);
+        entries.putInt(entry + 8, encoded.length);
+        entries.putInt(entry + 12, hash);
+        end += encoded.length;
+        return size++;
+    }
+    
+    private int hash(int id) {
+        return entries.getInt((long) id * ENTRY + 12);
+    }
+    
+    private boolean matches(int id, String str) {
+        long entry = (long) id * ENTRY;
+        long start = entries.getLong(entry);
+        int length = entries.getInt(entry + 8);
+        if (length == str.length()) {
+            // ASCII strings are compared without being encoded
+            for (int i = 0; i < length; i++) {
+                char c = str.charAt(i);
+                if (c >= 0x80) return Arrays.equals(str.getBytes(StandardCharsets.UTF_8), read(start, length));
+                if (bytes.get(start + i) != c) return false;
+            }
+            return true;
+        }
+        return length > str.length() && Arrays.equals(str.getBytes(StandardCharsets.UTF_8), read(start, length));
+    }
+    
+    private byte[] read(long start, int length) {
+        byte[] array = new byte[length];
+        bytes.get(start, array, 0, length);
+        return array;
+    }
+    
+    private void rehash() {
+        IntArray table = storage.createInts(this.table.length() * 2);
+        int mask = table.length() - 1;
+        for (int id = 1; id < size; id++) {
+            int i = mix(hash(id)) & mask;
+            while (table.get(i) != 0) i = (i + 1) & mask;
+            table.set(i, id + 1);
+        }
+        this.table.release();
+        this.table = table;
+    }
+    
+    @Override
+    public String get(int id) {
+        long entry = (long) id * ENTRY;
+        return new String(read(entries.getLong(entry), entries.getInt(entry + 8)), StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+}
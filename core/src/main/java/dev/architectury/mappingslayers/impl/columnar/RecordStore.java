@@ -0,0 +1,48 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+/**
+ * Fixed width records of ints, addressed by record id and field.
+ */
+public abstract class RecordStore {
+    protected final int width;
+    
+    protected RecordStore(int width) {
+        this.width = width;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public abstract int get(int record, int field);
+    
+    public abstract void set(int record, int field, int value);
+    
+    /**
+     * Adds a record, the fields of the record are {@code 0}.
+     *
+     * @return the id of the record
+     */
+    public abstract int allocate();
+    
+    public abstract int size();
+}
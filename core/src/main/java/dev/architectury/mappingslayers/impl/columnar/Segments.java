@@ -0,0 +1,131 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.columnar;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static dev.architectury.mappingslayers.impl.columnar.OffHeapStorage.MIN_SEGMENT_SIZE;
+import static dev.architectury.mappingslayers.impl.columnar.OffHeapStorage.SEGMENT_MASK;
+import static dev.architectury.mappingslayers.impl.columnar.OffHeapStorage.SEGMENT_SHIFT;
+import static dev.architectury.mappingslayers.impl.columnar.OffHeapStorage.SEGMENT_SIZE;
+
+/**
+ * A growable run of segments of an {@link OffHeapStorage}, addressed by long positions.
+ * Ints and longs must be aligned to their size so they never cross two segments.
+ * <p>
+ * The first segment starts small and doubles up to the full segment size, so a store only takes the memory of its data.
+ */
+final class Segments {
+    private final OffHeapStorage storage;
+    private ByteBuffer[] segments = new ByteBuffer[4];
+    private int count;
+    
+    Segments(OffHeapStorage storage) {
+        this.storage = storage;
+    }
+    
+    void ensure(long capacity) {
+        if (capacity <= 0) return;
+        if (count == 0 || segments[0].capacity() < SEGMENT_SIZE) {
+            growFirst(capacity);
+        }
+        while ((long) count << SEGMENT_SHIFT < capacity) {
+            if (count == segments.length) {
+                segments = Arrays.copyOf(segments, count * 2);
+            }
+            segments[count++] = storage.allocate(SEGMENT_SIZE);
+        }
+    }
+    
+    private void growFirst(long capacity) {
+        ByteBuffer first = count == 0 ? null : segments[0];
+        int size = first == null ? MIN_SEGMENT_SIZE : first.capacity();
+        if (size >= capacity && first != null) return;
+        while (size < capacity && size < SEGMENT_SIZE) size <<= 1;
+        ByteBuffer segment = storage.allocate(size);
+        if (first != null) {
+            ByteBuffer source = first.duplicate();
+            ((Buffer) source).clear();
+            segment.put(source);
+            ((Buffer) segment).clear();
+            storage.release(first);
+        }
+        segments[0] = segment;
+        count = 1;
+    }
+    
+    int getInt(long pos) {
+        return segments[(int) (pos >>> SEGMENT_SHIFT)].getInt((int) pos & SEGMENT_MASK);
+    }
+    
+    void putInt(long pos, int value) {
+        segments[(int) (pos >>> SEGMENT_SHIFT)].putInt((int) pos & SEGMENT_MASK, value);
+    }
+    
+    long getLong(long pos) {
+        return segments[(int) (pos >>> SEGMENT_SHIFT)].getLong((int) pos & SEGMENT_MASK);
+    }
+    
+    void putLong(long pos, long value) {
+        segments[(int) (pos >>> SEGMENT_SHIFT)].putLong((int) pos & SEGMENT_MASK, value);
+    }
+    
+    byte get(long pos) {
+        return segments[(int) (pos >>> SEGMENT_SHIFT)].get((int) pos & SEGMENT_MASK);
+    }
+    
+    void get(long pos, byte[] dst, int offset, int length) {
+        while (length > 0) {
+            ByteBuffer segment = segments[(int) (pos >>> SEGMENT_SHIFT)];
+            int start = (int) pos & SEGMENT_MASK;
+            int n = Math.min(length, SEGMENT_SIZE - start);
+            for (int i = 0; i < n; i++) {
+                dst[offset + i] = segment.get(start + i);
+            }
+            pos += n;
+            offset += n;
+            length -= n;
+        }
+    }
+    
+    void put(long pos, byte[] src) {
+        int offset = 0;
+        while (offset < src.length) {
+            ByteBuffer segment = segments[(int) (pos >>> SEGMENT_SHIFT)];
+            int start = (int) pos & SEGMENT_MASK;
+            int n = Math.min(src.length - offset, SEGMENT_SIZE - start);
+            for (int i = 0; i < n; i++) {
+                segment.put(start + i, src[offset + i]);
+            }
+            pos += n;
+            offset += n;
+        }
+    }
+    
+    void release() {
+        for (int i = 0; i < count; i++) {
+            storage.release(segments[i]);
+            segments[i] = null;
+        }
+        count = 0;
+    }
+}
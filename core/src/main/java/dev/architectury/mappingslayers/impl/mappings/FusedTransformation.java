@@ -0,0 +1,133 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.mappings;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableMapped;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.SimpleMappingsTransformation;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Consecutive {@link SimpleMappingsTransformation}s applied in a single walk of the tree, each entry is passed to the
+ * transformations handling its type in order.
+ * <p>
+ * Only transformations keeping the default {@link SimpleMappingsTransformation#handle(MutableTinyTree)} and
+ * {@link MappingsTransformation#modify(MutableTinyTree)} are fused, as they only change the entry they are given.
+ * Parallel safe transformations are not fused with the others, so that they can still run in parallel.
+ */
+public class FusedTransformation implements SimpleMappingsTransformation {
+    private static final MappingsEntryType[] TYPES = MappingsEntryType.values();
+    private static final ClassValue<Boolean> FUSIBLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("handle", MutableTinyTree.class).getDeclaringClass() == SimpleMappingsTransformation.class
+                       && type.getMethod("modify", MutableTinyTree.class).getDeclaringClass() == MappingsTransformation.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+    
+    private final List<SimpleMappingsTransformation> transformations;
+    // the transformations handling each type, by ordinal
+    private final SimpleMappingsTransformation[][] byType = new SimpleMappingsTransformation[TYPES.length][];
+    private final boolean parallelSafe;
+    
+    public FusedTransformation(List<SimpleMappingsTransformation> transformations) {
+        this.transformations = transformations;
+        this.parallelSafe = transformations.stream().allMatch(MappingsTransformation::isParallelSafe);
+        for (MappingsEntryType type : TYPES) {
+            byType[type.ordinal()] = transformations.stream().filter(transformation -> transformation.handleType(type))
+                    .toArray(SimpleMappingsTransformation[]::new);
+        }
+    }
+    
+    /**
+     * Replaces each run of fusible transformations by a {@link FusedTransformation}, the other transformations are
+     * kept in between.
+     */
+    public static List<MappingsTransformation> plan(List<? extends MappingsTransformation> transformations) {
+        List<MappingsTransformation> planned = new ArrayList<>();
+        List<SimpleMappingsTransformation> run = new ArrayList<>();
+        for (MappingsTransformation transformation : transformations) {
+            if (isEntryLocal(transformation)) {
+                if (!run.isEmpty() && run.get(0).isParallelSafe() != transformation.isParallelSafe()) {
+                    flush(run, planned);
+                }
+                run.add((SimpleMappingsTransformation) transformation);
+            } else {
+                flush(run, planned);
+                planned.add(transformation);
+            }
+        }
+        flush(run, planned);
+        return planned;
+    }
+    
+    /**
+     * Returns whether the transformation is a {@link SimpleMappingsTransformation} keeping the default tree handling.
+     */
+    public static boolean isEntryLocal(MappingsTransformation transformation) {
+        return transformation instanceof SimpleMappingsTransformation && FUSIBLE.get(transformation.getClass());
+    }
+    
+    private static void flush(List<SimpleMappingsTransformation> run, List<MappingsTransformation> planned) {
+        if (run.size() == 1) {
+            planned.add(run.get(0));
+        } else if (!run.isEmpty()) {
+            planned.add(new FusedTransformation(new ArrayList<>(run)));
+        }
+        run.clear();
+    }
+    
+    @Override
+    public String uuid() {
+        return transformations.stream().map(MappingsTransformation::uuid).collect(Collectors.joining(","));
+    }
+    
+    @Override
+    public boolean isParallelSafe() {
+        return parallelSafe;
+    }
+    
+    @Override
+    public boolean handleType(MappingsEntryType type) {
+        return byType[type.ordinal()].length != 0;
+    }
+    
+    @Override
+    public void handle(MutableMapped entry) {
+        for (SimpleMappingsTransformation transformation : byType[entry.getType().ordinal()]) {
+            transformation.handle(entry);
+        }
+    }
+    
+    @Override
+    public void handle(MutableTinyTree tree) {
+        MappingsUtils.walk(tree, this::handleType, this::handle);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.mappings;
+
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A tiny mappings input which can be read again each time it is needed, instead of being kept in memory.
+ */
+public interface MappingsSource {
+    void accept(MappingsVisitor visitor) throws IOException;
+    
+    MutableTinyTree load() throws IOException;
+    
+    static MappingsSource of(Path file) {
+        return of(file, MappingsLoadOptions.defaults());
+    }
+    
+    /**
+     * Returns a source reading a file with the options, a pool in the options is only used to load the file.
+     */
+    static MappingsSource of(Path file, MappingsLoadOptions options) {
+        return new MappingsSource() {
+            @Override
+            public void accept(MappingsVisitor visitor) throws IOException {
+                TinyReader.visitWithDetection(map(), visitor, options);
+            }
+            
+            @Override
+            public MutableTinyTree load() throws IOException {
+                return TinyReader.loadWithDetection(map(), options);
+            }
+            
+            private ByteBuffer map() throws IOException {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+        };
+    }
+    
+    static MappingsSource ofZipEntry(Path zip, String entry) {
+        return new MappingsSource() {
+            @Override
+            public void accept(MappingsVisitor visitor) throws IOException {
+                try (FileSystem fs = FileSystems.newFileSystem(zip, null);
+                     BufferedReader reader = Files.newBufferedReader(fs.getPath(entry), StandardCharsets.UTF_8)) {
+                    TinyReader.visitWithDetection(reader, visitor, MappingsLoadOptions.defaults());
+                }
+            }
+            
+            @Override
+            public MutableTinyTree load() throws IOException {
+                try (FileSystem fs = FileSystems.newFileSystem(zip, null);
+                     BufferedReader reader = Files.newBufferedReader(fs.getPath(entry), StandardCharsets.UTF_8)) {
+                    return TinyReader.loadWithDetection(reader, MappingsLoadOptions.defaults());
+                }
+            }
+        };
+    }
+}
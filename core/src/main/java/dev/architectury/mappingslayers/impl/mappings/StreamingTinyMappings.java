@@ -0,0 +1,113 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.mappings;
+
+import dev.architectury.mappingslayers.api.Mappings;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.SimpleMappingsTransformation;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mappings which are only read when serialized, passing each class through the transformations on the way.
+ * <p>
+ * As long as only {@link SimpleMappingsTransformation}s are applied no tree is built, classes are written one by one.
+ * Any other transformation needs the whole tree, the mappings are then loaded into {@link TinyTreeMappings}.
+ * Duplicated class blocks in the input are written as they are instead of being merged.
+ */
+public class StreamingTinyMappings implements Mappings {
+    private final MappingsSource source;
+    private final String uuid;
+    private final List<MappingsTransformation> pending = new ArrayList<>();
+    private @Nullable TinyTreeMappings loaded;
+    
+    public StreamingTinyMappings(MappingsSource source, String uuid) {
+        this.source = source;
+        this.uuid = uuid;
+    }
+    
+    @Override
+    public String serializeToTiny() {
+        StringWriter writer = new StringWriter();
+        try {
+            serializeToTiny(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+    
+    @Override
+    public void serializeToTiny(Writer writer) throws IOException {
+        if (loaded != null) {
+            loaded.serializeToTiny(writer);
+        } else {
+            source.accept(new StreamingTinyWriter(pending, writer));
+        }
+    }
+    
+    @Override
+    public String uuid() {
+        return uuid;
+    }
+    
+    @Override
+    public Mappings withTransformations(List<MappingsTransformation> transformations) {
+        if (loaded == null && transformations.stream().allMatch(SimpleMappingsTransformation.class::isInstance)) {
+            pending.addAll(transformations);
+            return this;
+        }
+        load().withTransformations(transformations);
+        return this;
+    }
+    
+    /**
+     * Reads the mappings into a tree with the transformations applied, without keeping the tree.
+     * If the mappings were already loaded, their tree is returned instead.
+     */
+    public MutableTinyTree readTree() throws IOException {
+        if (loaded != null) return loaded.getTree();
+        MutableTinyTree tree = source.load();
+        for (MappingsTransformation transformation : FusedTransformation.plan(pending)) {
+            tree = transformation.modify(tree);
+        }
+        return tree;
+    }
+    
+    private TinyTreeMappings load() {
+        if (loaded == null) {
+            try {
+                loaded = TinyTreeMappings.owning(source.load(), uuid);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            loaded.withTransformations(pending);
+            pending.clear();
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.mappings;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.mappingslayers.impl.serializer.TinyTreeSerializer;
+import dev.architectury.mappingslayers.impl.tiny.TinyTreeImpl;
+import net.fabricmc.mapping.reader.v2.TinyMetadata;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * A {@link MappingsVisitor} transforming and writing each class as soon as it is read,
+ * only a single class is kept in memory at a time.
+ * <p>
+ * The transformations must only look at the entries of the class being handled, see {@link StreamingTinyMappings}.
+ */
+public class StreamingTinyWriter implements MappingsVisitor {
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    private final List<? extends MappingsTransformation> transformations;
+    private final Writer writer;
+    private final TinyTreeBuilder builder = new TinyTreeBuilder();
+    private final StringBuilder buffer = new StringBuilder();
+    private TinyMetadata metadata;
+    private int depth;
+    
+    public StreamingTinyWriter(List<? extends MappingsTransformation> transformations, Writer writer) {
+        this.transformations = FusedTransformation.plan(transformations);
+        this.writer = writer;
+    }
+    
+    @Override
+    public void visitHeader(TinyMetadata metadata) {
+        builder.visitHeader(metadata);
+        this.metadata = builder.getTree().getMetadata();
+        TinyTreeSerializer.writeHeader(this.metadata, buffer);
+    }
+    
+    @Override
+    public boolean visitClass(String[] names) {
+        depth++;
+        return builder.visitClass(names);
+    }
+    
+    @Override
+    public boolean visitField(String descriptor, String[] names) {
+        depth++;
+        return builder.visitField(descriptor, names);
+    }
+    
+    @Override
+    public boolean visitMethod(String descriptor, String[] names) {
+        depth++;
+        return builder.visitMethod(descriptor, names);
+    }
+    
+    @Override
+    public boolean visitParameter(int lvIndex, String[] names) {
+        depth++;
+        return builder.visitParameter(lvIndex, names);
+    }
+    
+    @Override
+    public boolean visitLocalVariable(int lvIndex, int lvStartOffset, int lvtIndex, String[] names) {
+        depth++;
+        return builder.visitLocalVariable(lvIndex, lvStartOffset, lvtIndex, names);
+    }
+    
+    @Override
+    public void visitComment(String comment) {
+        builder.visitComment(comment);
+    }
+    
+    @Override
+    public void visitEntryEnd(MappingsEntryType type) {
+        builder.visitEntryEnd(type);
+        if (--depth == 0) {
+            writeClasses();
+        }
+    }
+    
+    @Override
+    public void visitEnd() {
+        flush();
+    }
+    
+    private void writeClasses() {
+        TinyTreeImpl tree = builder.getTree();
+        for (MappingsTransformation transformation : transformations) {
+            transformation.handle(tree);
+        }
+        for (MutableClassDef classDef : tree.getClassesMutable()) {
+            TinyTreeSerializer.writeClass(metadata, classDef, buffer);
+        }
+        tree.getClassesMutable().clear();
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+    
+    private void flush() {
+        try {
+            TinyTreeSerializer.flush(buffer, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -17,55 +17,288 @@
 package dev.architectury.mappingslayers.impl.mappings;
 
 import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
 import dev.architectury.mappingslayers.api.mutable.*;
 import dev.architectury.mappingslayers.api.utils.MappingsUtils;
-import dev.architectury.mappingslayers.impl.tiny.MappedImpl;
+import dev.architectury.mappingslayers.api.utils.StringPool;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.mappingslayers.impl.columnar.ColumnarStorage;
+import dev.architectury.mappingslayers.impl.columnar.ColumnarTree;
+import dev.architectury.mappingslayers.impl.tiny.LazyClassDefImpl;
 import dev.architectury.mappingslayers.impl.tiny.TinyTreeImpl;
+import dev.architectury.mappingslayers.impl.tiny.utils.TinyTreeEntryIterator;
+import dev.architectury.refmapremapper.utils.DescriptorRemapper;
 import net.fabricmc.mapping.reader.v2.TinyMetadata;
-import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
+import java.io.CharArrayReader;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Copy pasta of {@link net.fabricmc.mapping.reader.v2.TinyV2Factory}
  */
 public final class TinyReader {
+    private static final int MIN_PARALLEL_CHUNK = 1 << 18;
+    
     public static MutableTinyTree load(BufferedReader reader) throws IOException {
         return load(reader, false);
     }
     
     public static MutableTinyTree load(BufferedReader reader, boolean slim) throws IOException {
-        Visitor visitor = new Visitor(slim);
-        visit(reader, visitor);
-        return visitor.tree;
+        return load(reader, MappingsLoadOptions.defaults().withSlim(slim));
+    }
+    
+    public static MutableTinyTree load(BufferedReader reader, MappingsLoadOptions options) throws IOException {
+        TreeBuilder builder = TreeBuilder.create(options);
+        visit(reader, builder, options);
+        return builder.getTree();
+    }
+    
+    public static MutableTinyTree load(Path path, boolean slim) throws IOException {
+        return load(path, MappingsLoadOptions.defaults().withSlim(slim));
+    }
+    
+    /**
+     * Loads a tiny v2 file by memory mapping it, see {@link #load(ByteBuffer, MappingsLoadOptions)}.
+     */
+    public static MutableTinyTree load(Path path, MappingsLoadOptions options) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return load(channel, options);
+        }
+    }
+    
+    public static MutableTinyTree load(FileChannel channel, boolean slim) throws IOException {
+        return load(channel, MappingsLoadOptions.defaults().withSlim(slim));
+    }
+    
+    /**
+     * Loads a tiny v2 file by memory mapping the channel, see {@link #load(ByteBuffer, MappingsLoadOptions)}.
+     * The channel may be closed after this returns.
+     */
+    public static MutableTinyTree load(FileChannel channel, MappingsLoadOptions options) throws IOException {
+        return load(map(channel), options);
+    }
+    
+    public static MutableTinyTree load(ByteBuffer buffer, boolean slim) {
+        return load(buffer, MappingsLoadOptions.defaults().withSlim(slim));
+    }
+    
+    /**
+     * Loads tiny v2 mappings from the remaining UTF-8 bytes of a buffer, the position of the buffer is left untouched.
+     * Tabs and line breaks are found in the raw bytes, strings are only created for the names that are stored.
+     * <p>
+     * If the options have a {@linkplain MappingsLoadOptions#getPool() pool}, the body is split at top level
+     * class lines and the chunks are parsed on the pool, then spliced into the tree in their original order.
+     * <p>
+     * If the options are {@linkplain MappingsLoadOptions#isLazy() lazy}, only the class lines are read,
+     * the members of a class are decoded from the buffer when they are first accessed.
+     */
+    public static MutableTinyTree load(ByteBuffer buffer, MappingsLoadOptions options) {
+        if (options.isColumnar()) {
+            TreeBuilder builder = TreeBuilder.create(options);
+            visit(buffer, builder, options);
+            return builder.getTree();
+        }
+        StringPool stringPool = options.createStringPool();
+        ByteLineSource source = new ByteLineSource(buffer, buffer.position(), buffer.limit(), stringPool);
+        TinyTreeBuilder builder = new TinyTreeBuilder();
+        Visitor visitor = new Visitor(builder, options, stringPool);
+        try {
+            TinyMetadata meta = visitHeader(source, visitor);
+            ForkJoinPool pool = options.getPool();
+            if (options.isLazy()) {
+                visitLazy(buffer, source, meta, builder.getTree(), visitor);
+            } else if (pool != null && source.hasLine() && buffer.limit() - source.lineStart >= MIN_PARALLEL_CHUNK * 2) {
+                visitParallel(buffer, source.lineStart, meta, builder, visitor, pool, stringPool);
+            } else {
+                visitBody(source, visitor, meta);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.getTree();
+    }
+    
+    public static void visit(BufferedReader reader, MappingsVisitor visitor) throws IOException {
+        visit(reader, visitor, MappingsLoadOptions.defaults());
+    }
+    
+    /**
+     * Visits tiny v2 mappings line by line, without keeping anything but the current line in memory.
+     */
+    public static void visit(BufferedReader reader, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        if (changesPrimaryNamespace(reader, options)) {
+            // the descriptors are remapped with the class names of the whole file, which can only be read twice from bytes
+            visit(StandardCharsets.UTF_8.encode(readFully(reader)), visitor, options);
+            return;
+        }
+        StringPool stringPool = options.createStringPool();
+        visit(new StringLineSource(reader, stringPool), new Visitor(visitor, options, stringPool));
+    }
+    
+    public static void visit(Path path, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            visit(map(channel), visitor, options);
+        }
+    }
+    
+    /**
+     * Visits tiny v2 mappings from the remaining UTF-8 bytes of a buffer, the position of the buffer is left untouched.
+     * The mappings are always visited on the calling thread.
+     */
+    public static void visit(ByteBuffer buffer, MappingsVisitor visitor, MappingsLoadOptions options) {
+        try {
+            StringPool stringPool = options.createStringPool();
+            visit(new ByteLineSource(buffer, buffer.position(), buffer.limit(), stringPool), new Visitor(visitor, options, stringPool));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public static void visitWithDetection(BufferedReader reader, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        reader.mark(8192);
+        String firstLine = reader.readLine();
+        String[] header = firstLine.split("\t");
+        reader.reset();
+        switch (header[0]) {
+            case "tiny":
+                visit(reader, visitor, options);
+                return;
+            case "v1":
+                visitLegacy(reader, visitor, options);
+                return;
+        }
+        throw new UnsupportedOperationException("Unsupported format with header \"" + firstLine + "\"!");
+    }
+    
+    public static void visitWithDetection(ByteBuffer buffer, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        if (startsWith(buffer, "tiny\t")) {
+            visit(buffer, visitor, options);
+        } else if (startsWith(buffer, "v1\t")) {
+            visitLegacy(legacyReader(buffer), visitor, options);
+        } else {
+            throw unsupportedFormat(buffer);
+        }
     }
     
     public static MutableTinyTree loadWithDetection(BufferedReader reader) throws IOException {
         return loadWithDetection(reader, false);
     }
     
-    private static void visit(BufferedReader reader, Visitor visitor) throws IOException {
-        String line;
-        final int namespaceCount;
-        final boolean escapedNames;
+    public static MutableTinyTree loadWithDetection(Path path, boolean slim) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return loadWithDetection(map(channel), slim);
+        }
+    }
+    
+    public static MutableTinyTree loadWithDetection(ByteBuffer buffer, boolean slim) throws IOException {
+        return loadWithDetection(buffer, MappingsLoadOptions.defaults().withSlim(slim));
+    }
+    
+    public static MutableTinyTree loadWithDetection(ByteBuffer buffer, MappingsLoadOptions options) throws IOException {
+        if (startsWith(buffer, "tiny\t")) {
+            return load(buffer, options);
+        } else if (startsWith(buffer, "v1\t")) {
+            return loadLegacy(legacyReader(buffer), options);
+        }
+        throw unsupportedFormat(buffer);
+    }
+    
+    private static BufferedReader legacyReader(ByteBuffer buffer) {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(buffer.duplicate());
+        return new BufferedReader(new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()));
+    }
+    
+    private static boolean changesPrimaryNamespace(BufferedReader reader, MappingsLoadOptions options) throws IOException {
+        if (options.getNamespaces() == null) return false;
+        reader.mark(8192);
+        String firstLine = reader.readLine();
+        reader.reset();
+        if (firstLine == null) return false;
+        String[] parts = firstLine.split("\t", -1);
+        return parts.length > 3 && !parts[3].equals(options.getNamespaces().get(0));
+    }
+    
+    private static CharBuffer readFully(BufferedReader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] chars = new char[8192];
+        int read;
+        while ((read = reader.read(chars)) != -1) {
+            builder.append(chars, 0, read);
+        }
+        return CharBuffer.wrap(builder);
+    }
+    
+    private static UnsupportedOperationException unsupportedFormat(ByteBuffer buffer) {
+        ByteBuffer header = buffer.duplicate();
+        int end = header.position();
+        while (end < header.limit() && header.get(end) != '\n') end++;
+        ((Buffer) header).limit(end);
+        return new UnsupportedOperationException("Unsupported format with header \"" + StandardCharsets.UTF_8.decode(header) + "\"!");
+    }
+    
+    private static ByteBuffer map(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Mappings of " + size + " bytes are too large to be mapped!");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+    
+    private static boolean startsWith(ByteBuffer buffer, String prefix) {
+        if (buffer.remaining() < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(buffer.position() + i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+    
+    private static void visit(LineSource source, Visitor visitor) throws IOException {
+        visitBody(source, visitor, visitHeader(source, visitor));
+        visitor.end();
+    }
+    
+    /**
+     * Visits the header, the class names are read ahead if the descriptors have to be remapped.
+     */
+    private static TinyMetadata visitHeader(LineSource source, Visitor visitor) throws IOException {
+        final TinyMetadata meta;
         try {
-            final TinyMetadata meta = readMetadata(reader);
-            namespaceCount = meta.getNamespaces().size();
-            escapedNames = meta.getProperties().containsKey("escaped-names");
+            meta = readMetadata(source);
             visitor.start(meta);
-            line = reader.readLine();
         } catch (RuntimeException ex) {
             throw new IllegalStateException("Error in the header!", ex);
         }
+        if (visitor.remapsDescriptors() && source.hasLine()) {
+            visitor.classes = source.readClassNames(visitor, meta.getProperties().containsKey("escaped-names"));
+        }
+        return meta;
+    }
+    
+    private static void visitBody(LineSource source, Visitor visitor, TinyMetadata meta) throws IOException {
+        final int namespaceCount = meta.getNamespaces().size();
+        final boolean escapedNames = meta.getProperties().containsKey("escaped-names");
         
         int lastIndent = -1;
         final TinyState[] stack = new TinyState[4]; // max depth 4
-        for (; line != null; line = reader.readLine()) {
+        for (boolean hasLine = source.hasLine(); hasLine; hasLine = source.next()) {
             try {
-                int currentIndent = countIndent(line);
+                int currentIndent = source.indent();
                 if (currentIndent > lastIndent + 1)
                     throw new IllegalArgumentException("Broken indent! Maximum " + (lastIndent + 1) + ", actual " + currentIndent);
                 if (currentIndent <= lastIndent) {
@@ -73,10 +306,9 @@ public final class TinyReader {
                 }
                 lastIndent = currentIndent;
                 
-                final String[] parts = line.split("\t", -1);
-                final TinyState currentState = TinyState.get(currentIndent, parts[currentIndent]);
+                final TinyState currentState = TinyState.get(currentIndent, source);
                 
-                if (!currentState.checkPartCount(currentIndent, parts.length, namespaceCount)) {
+                if (!currentState.checkPartCount(currentIndent, source.size(), namespaceCount)) {
                     throw new IllegalArgumentException("Wrong number of parts for definition of a " + currentState + "!");
                 }
                 
@@ -86,9 +318,17 @@ public final class TinyReader {
                 
                 stack[currentIndent] = currentState;
                 
-                currentState.visit(visitor, parts, currentIndent, escapedNames);
+                if (visitor.skips(currentIndent)) {
+                    visitor.pushSkipped();
+                } else {
+                    currentState.visit(visitor, source, currentIndent, escapedNames);
+                    if (visitor.skips(currentIndent + 1)) {
+                        // the children are not visited, don't bother tokenizing them
+                        source.skipChildren(currentIndent);
+                    }
+                }
             } catch (RuntimeException ex) {
-                throw new IllegalStateException("Error on line \"" + line + "\"!", ex);
+                throw new IllegalStateException("Error on line \"" + source.line() + "\"!", ex);
             }
         }
         
@@ -97,6 +337,161 @@ public final class TinyReader {
         }
     }
     
+    private static void visitParallel(ByteBuffer buffer, int bodyStart, TinyMetadata meta, TinyTreeBuilder builder, Visitor visitor, ForkJoinPool pool, StringPool stringPool) {
+        final int limit = buffer.limit();
+        final int chunkSize = Math.max(MIN_PARALLEL_CHUNK, (limit - bodyStart) / (pool.getParallelism() * 4));
+        List<ForkJoinTask<List<MutableClassDef>>> tasks = new ArrayList<>();
+        int start = bodyStart;
+        while (start < limit) {
+            int end = nextClassLine(buffer, Math.min(limit, start + chunkSize), limit);
+            final int chunkStart = start, chunkEnd = end;
+            tasks.add(pool.submit(() -> {
+                TinyTreeBuilder chunkBuilder = TinyTreeBuilder.detached(builder.getTree());
+                ByteLineSource chunk = new ByteLineSource(buffer, chunkStart, chunkEnd, stringPool);
+                chunk.next();
+                visitBody(chunk, visitor.fork(chunkBuilder), meta);
+                return chunkBuilder.getDetachedClasses();
+            }));
+            start = end;
+        }
+        for (ForkJoinTask<List<MutableClassDef>> task : tasks) {
+            builder.splice(task.join());
+        }
+    }
+    
+    private static void visitLazy(ByteBuffer buffer, ByteLineSource source, TinyMetadata meta, TinyTreeImpl tree, Visitor visitor) throws IOException {
+        final int namespaceCount = meta.getNamespaces().size();
+        final boolean escapedNames = meta.getProperties().containsKey("escaped-names");
+        Map<String, LazyBody> bodies = new HashMap<>();
+        for (boolean hasLine = source.hasLine(); hasLine; hasLine = source.next()) {
+            final int start = source.lineStart;
+            final String[] names;
+            try {
+                if (source.indent() != 0 || TinyState.get(0, source) != TinyState.CLASS) {
+                    throw new IllegalArgumentException("Expected a class!");
+                }
+                if (!TinyState.CLASS.checkPartCount(0, source.size(), namespaceCount)) {
+                    throw new IllegalArgumentException("Wrong number of parts for definition of a " + TinyState.CLASS + "!");
+                }
+                names = visitor.classNames(TinyState.CLASS.makeGetter(source, 0, escapedNames));
+            } catch (RuntimeException ex) {
+                throw new IllegalStateException("Error on line \"" + source.line() + "\"!", ex);
+            }
+            source.skipChildren(0);
+            if (names == null) continue;
+            LazyBody body = bodies.get(names[0]);
+            if (body == null) {
+                body = new LazyBody(buffer, meta, tree, visitor);
+                bodies.put(names[0], body);
+                tree.getClassesMutable().add(new LazyClassDefImpl(tree, names, body));
+            } else {
+                MutableClassDef classDef = tree.getDefaultNamespaceClassMapMutable().get(names[0]);
+                for (int i = 1; i < names.length; i++) {
+                    classDef.setName(i, names[i]);
+                }
+            }
+            body.add(start, Math.min(source.position, source.limit));
+        }
+    }
+    
+    /**
+     * Decodes the class blocks of a lazy class, classes may have multiple blocks.
+     */
+    private static final class LazyBody implements Supplier<MutableClassDef> {
+        private final ByteBuffer buffer;
+        private final TinyMetadata meta;
+        private final TinyTreeImpl tree;
+        private final Visitor visitor;
+        private int[] ranges = new int[2];
+        private int size;
+        
+        LazyBody(ByteBuffer buffer, TinyMetadata meta, TinyTreeImpl tree, Visitor visitor) throws IOException {
+            this.buffer = buffer;
+            this.meta = meta;
+            this.tree = tree;
+            this.visitor = visitor;
+        }
+        
+        void add(int start, int end) {
+            if (size == ranges.length) ranges = Arrays.copyOf(ranges, size * 2);
+            ranges[size++] = start;
+            ranges[size++] = end;
+        }
+        
+        @Override
+        public MutableClassDef get() {
+            TinyTreeBuilder builder = TinyTreeBuilder.detached(tree);
+            Visitor visitor = this.visitor.fork(builder);
+            try {
+                for (int i = 0; i < size; i += 2) {
+                    ByteLineSource source = new ByteLineSource(buffer, ranges[i], ranges[i + 1], visitor.stringPool);
+                    source.next();
+                    visitBody(source, visitor, meta);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            List<MutableClassDef> classes = builder.getDetachedClasses();
+            return classes.isEmpty() ? tree.constructClass("") : classes.get(0);
+        }
+    }
+    
+    /**
+     * Finds the start of the first top level class line at or after {@code from}, or {@code limit} if there is none.
+     */
+    private static int nextClassLine(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit - 1; i++) {
+            if (buffer.get(i) == 'c' && buffer.get(i + 1) == '\t' && buffer.get(i - 1) == '\n') {
+                return i;
+            }
+        }
+        return limit;
+    }
+    
+    private static MutableTinyMetadata readMetadata(LineSource source) throws IOException {
+        if (!source.next())
+            throw new IllegalArgumentException("Empty reader!");
+        if (source.size() < 4 || !source.get(0).equals("tiny")) {
+            throw new IllegalArgumentException("Unsupported format!");
+        }
+        
+        final int majorVersion;
+        try {
+            majorVersion = Integer.parseInt(source.get(1));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid major version!", ex);
+        }
+        final int minorVersion;
+        try {
+            minorVersion = Integer.parseInt(source.get(2));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid minor version!", ex);
+        }
+        
+        final List<String> namespaces = new ArrayList<>(source.size() - 3);
+        for (int i = 3; i < source.size(); i++) {
+            namespaces.add(source.get(i));
+        }
+        
+        final Map<String, String> properties = new LinkedHashMap<>();
+        while (source.next()) {
+            switch (source.indent()) {
+                case 0: {
+                    return makeHeader(majorVersion, minorVersion, namespaces, properties);
+                }
+                case 1: {
+                    properties.put(source.get(1), source.size() == 2 ? null : source.get(2));
+                    break;
+                }
+                default: {
+                    throw new IllegalArgumentException("Invalid indent in header! Encountered \"" + source.line() + "\"!");
+                }
+            }
+        }
+        
+        return makeHeader(majorVersion, minorVersion, namespaces, properties);
+    }
+    
     public static TinyMetadata readMetadata(final BufferedReader reader) throws IOException, IllegalArgumentException {
         final String firstLine = reader.readLine();
         if (firstLine == null)
@@ -126,7 +521,7 @@ public final class TinyReader {
             switch (countIndent(line)) {
                 case 0: {
                     reader.reset();
-                    return makeHeader(majorVersion, minorVersion, parts, properties);
+                    return makeHeader(majorVersion, minorVersion, Arrays.asList(parts).subList(3, parts.length), properties);
                 }
                 case 1: {
                     String[] elements = line.split("\t", -1); // Care about "" values
@@ -140,11 +535,11 @@ public final class TinyReader {
             reader.mark(8192);
         }
         
-        return makeHeader(majorVersion, minorVersion, parts, properties);
+        return makeHeader(majorVersion, minorVersion, Arrays.asList(parts).subList(3, parts.length), properties);
     }
     
-    private static MutableTinyMetadata makeHeader(int major, int minor, String[] parts, Map<String, String> props) {
-        List<String> list = new ArrayList<>(Arrays.asList(parts).subList(3, parts.length));
+    private static MutableTinyMetadata makeHeader(int major, int minor, List<String> namespaces, Map<String, String> props) {
+        List<String> list = new ArrayList<>(namespaces);
         return MutableTinyMetadata.create(major, minor, Collections.unmodifiableList(list), Collections.unmodifiableMap(new HashMap<>(props)));
     }
     
@@ -158,211 +553,344 @@ public final class TinyReader {
     }
     
     public static MutableTinyTree loadWithDetection(BufferedReader reader, boolean slim) throws IOException {
+        return loadWithDetection(reader, MappingsLoadOptions.defaults().withSlim(slim));
+    }
+    
+    public static MutableTinyTree loadWithDetection(BufferedReader reader, MappingsLoadOptions options) throws IOException {
         reader.mark(8192);
         String firstLine = reader.readLine();
         String[] header = firstLine.split("\t");
         reader.reset();
         switch (header[0]) {
             case "tiny":
-                return load(reader, slim);
+                return load(reader, options);
             case "v1":
-                return loadLegacy(reader);
+                return loadLegacy(reader, options);
         }
         throw new UnsupportedOperationException("Unsupported format with header \"" + firstLine + "\"!");
     }
     
     public static MutableTinyTree loadLegacy(BufferedReader reader) throws IOException {
+        return loadLegacy(reader, MappingsLoadOptions.defaults());
+    }
+    
+    /**
+     * Loads tiny v1 mappings in a single pass, members are attached to their class as they are read.
+     * Classes are created when their first line is read, so members may come before their class.
+     * <p>
+     * The names are projected to the loaded namespaces as they are read. If the primary namespace changes,
+     * the class lines are read in a first pass over the text to remap the descriptors.
+     */
+    public static MutableTinyTree loadLegacy(BufferedReader reader, MappingsLoadOptions options) throws IOException {
         String[] header = reader.readLine().split("\t");
         if (header.length <= 1 || !header[0].equals("v1")) {
             throw new IOException("Invalid mapping version!");
         }
         
-        String[] namespaceList = new String[header.length - 1];
-        System.arraycopy(header, 1, namespaceList, 0, header.length - 1);
-        MutableTinyTree tree = MappingsUtils.create(MutableTinyMetadata.create(1, 0, Arrays.asList(namespaceList), new HashMap<>()));
+        List<String> fileNamespaces = Arrays.asList(header).subList(1, header.length);
+        List<String> namespaces = options.getNamespaces() != null ? options.getNamespaces() : fileNamespaces;
+        // the columns of the kept namespaces, null if every namespace is kept
+        int[] columns = null;
+        if (options.getNamespaces() != null) {
+            columns = new int[namespaces.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = fileNamespaces.indexOf(namespaces.get(i));
+                if (columns[i] < 0) {
+                    throw new IllegalArgumentException("Unknown namespace \"" + namespaces.get(i) + "\", the mappings have " + fileNamespaces + "!");
+                }
+            }
+        }
+        MutableTinyMetadata metadata = MutableTinyMetadata.create(1, 0, new ArrayList<>(namespaces), new HashMap<>());
+        MutableTinyTree tree = options.isColumnar() ? new ColumnarTree(metadata, ColumnarStorage.create(options)) : MappingsUtils.create(metadata);
+        StringPool pool = options.createStringPool();
+        final boolean fields = options.loads(MappingsEntryType.FIELD);
+        final boolean methods = options.loads(MappingsEntryType.METHOD);
+        final Predicate<String> classFilter = options.getClassFilter();
+        final int namespaceCount = fileNamespaces.size();
         
-        final Map<String, MutableClassDef> firstNamespaceClassEntries = new HashMap<>();
-        List<String[]> fieldLines = new ArrayList<>();
-        List<String[]> methodLines = new ArrayList<>();
+        // the projected primary names of the classes, if the primary namespace changes
+        Map<String, String> classes = null;
+        if (columns != null && columns[0] != 0) {
+            String content = readFully(reader).toString();
+            classes = new HashMap<>();
+            reader = new BufferedReader(new StringReader(content));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("CLASS\t")) continue;
+                String[] splitLine = line.split("\t");
+                classes.put(splitLine[1], project(splitLine, 1, namespaceCount, columns)[0]);
+            }
+            reader = new BufferedReader(new StringReader(content));
+        }
         
         String line;
         while ((line = reader.readLine()) != null) {
+            // skip the members which are not loaded before splitting them
+            if (!fields && line.startsWith("FIELD\t") || !methods && line.startsWith("METHOD\t")) continue;
             String[] splitLine = line.split("\t");
-            if (splitLine.length >= 2) {
-                switch (splitLine[0]) {
-                    case "CLASS":
-                        MutableClassDef entry = tree.getOrCreateClass(splitLine[1]);
-                        for (int i = 2; i < splitLine.length; i++) {
-                            entry.setName(i - 1, splitLine[i]);
-                        }
-                        firstNamespaceClassEntries.put(entry.getName(0), entry);
-                        break;
-                    case "FIELD":
-                        fieldLines.add(splitLine);
-                        break;
-                    case "METHOD":
-                        methodLines.add(splitLine);
-                        break;
+            if (splitLine.length < 2) continue;
+            String className = classes == null ? splitLine[1] : classes.getOrDefault(splitLine[1], splitLine[1]);
+            if (classFilter != null && !classFilter.test(className)) continue;
+            switch (splitLine[0]) {
+                case "CLASS": {
+                    MutableClassDef entry = tree.getOrCreateClass(pool.intern(className));
+                    String[] names = project(splitLine, 1, namespaceCount, columns);
+                    for (int i = 1; i < names.length; i++) {
+                        entry.setName(i, pool.intern(names[i]));
+                    }
+                    break;
+                }
+                case "FIELD": {
+                    // FIELD ClassName desc names ...
+                    MutableClassDef parent = tree.getOrCreateClass(pool.intern(className)); // No class for my field yet, sad!
+                    String[] names = project(splitLine, 3, namespaceCount, columns);
+                    MutableFieldDef field = parent.getOrCreateField(pool.intern(names[0]), pool.intern(remapDescriptor(splitLine[2], classes)));
+                    for (int i = 1; i < names.length; i++) {
+                        field.setName(i, pool.intern(names[i]));
+                    }
+                    break;
+                }
+                case "METHOD": {
+                    // METHOD ClassName desc names ...
+                    MutableClassDef parent = tree.getOrCreateClass(pool.intern(className)); // No class for my method yet, sad!
+                    String[] names = project(splitLine, 3, namespaceCount, columns);
+                    MutableMethodDef method = parent.getOrCreateMethod(pool.intern(names[0]), pool.intern(remapDescriptor(splitLine[2], classes)));
+                    for (int i = 1; i < names.length; i++) {
+                        method.setName(i, pool.intern(names[i]));
+                    }
+                    break;
                 }
             }
         }
         
-        for (String[] splitLine : fieldLines) {
-            // FIELD ClassName desc names ...
-            String className = splitLine[1];
-            MutableClassDef parent = firstNamespaceClassEntries.get(className);
-            if (parent == null) {
-                parent = tree.getOrCreateClass(className); // No class for my field, sad!
-                firstNamespaceClassEntries.put(className, parent);
-            }
-            
-            MutableFieldDef field = parent.getOrCreateField(splitLine[3], splitLine[2]);
-            for (int i = 3; i < splitLine.length; i++) {
-                field.setName(i - 2, splitLine[i]);
-            }
+        return tree;
+    }
+    
+    /**
+     * Returns the names of a v1 line starting at {@code offset}, projected to the given columns like
+     * {@link PartGetter#getNames(int[])} does for v2.
+     */
+    private static String[] project(String[] splitLine, int offset, int namespaceCount, int @Nullable [] columns) {
+        String[] names = new String[namespaceCount];
+        for (int i = 0; i < namespaceCount; i++) {
+            names[i] = offset + i < splitLine.length ? splitLine[offset + i] : "";
         }
-        
-        for (String[] splitLine : methodLines) {
-            // METHOD ClassName desc names ...
-            String className = splitLine[1];
-            MutableClassDef parent = firstNamespaceClassEntries.get(className);
-            if (parent == null) {
-                parent = tree.getOrCreateClass(className); // No class for my field, sad!
-                firstNamespaceClassEntries.put(className, parent);
-            }
-            
-            MutableMethodDef method = parent.getOrCreateMethod(splitLine[3], splitLine[2]);
-            for (int i = 3; i < splitLine.length; i++) {
-                method.setName(i - 2, splitLine[i]);
+        if (columns == null) return names;
+        String[] ret = new String[columns.length];
+        String previous = null;
+        for (int i = 0; i < columns.length; i++) {
+            int index = columns[i];
+            String resolved;
+            if (!names[index].isEmpty()) {
+                ret[i] = resolved = names[index];
+            } else {
+                while (index > 0 && names[index].isEmpty())
+                    index--;
+                resolved = names[index];
+                ret[i] = i > 0 && resolved.equals(previous) ? "" : resolved;
             }
+            previous = resolved;
         }
-        
-        return tree;
+        return ret;
+    }
+    
+    private static String remapDescriptor(String descriptor, @Nullable Map<String, String> classes) {
+        if (classes == null) return descriptor;
+        return DescriptorRemapper.remapDescriptor(descriptor, name -> classes.getOrDefault(name, name));
+    }
+    
+    public static void visitLegacy(BufferedReader reader, MappingsVisitor visitor) throws IOException {
+        visitLegacy(reader, visitor, MappingsLoadOptions.defaults());
+    }
+    
+    /**
+     * Visits tiny v1 mappings, the members of a class are visited right after it.
+     */
+    public static void visitLegacy(BufferedReader reader, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        // v1 does not group members by class, so the mappings are grouped in a tree first
+        TinyTreeEntryIterator.accept(loadLegacy(reader, options), visitor);
     }
     
     private TinyReader() {
     }
     
+    /**
+     * Translates the lines of the state machine into {@link MappingsVisitor} events, skipping the children
+     * of the entries the delegate does not want to visit.
+     */
     private static final class Visitor {
-        private MutableMapped parameterDummy;
-        private MutableMapped localsDummy;
-        private final boolean slim;
-        private @MonotonicNonNull TinyTreeImpl tree;
-        private final Deque<MutableMapped> stack = new ArrayDeque<>(4);
-        private boolean pushedComment = false;
-        private @MonotonicNonNull MutableClassDef inClass = null;
-        private @MonotonicNonNull MutableMethodDef inMethod = null;
+        private final MappingsVisitor delegate;
+        private final MappingsLoadOptions options;
+        private final StringPool stringPool;
+        private final boolean comments;
+        private final boolean methods;
+        private final boolean fields;
+        private final boolean parameters;
+        private final boolean locals;
+        @Nullable
+        private final Predicate<String> classFilter;
+        // the entry type of each open level, null for comments and entries which were not visited
+        private final MappingsEntryType[] levels = new MappingsEntryType[4];
+        private int depth;
+        private int skipBelow = Integer.MAX_VALUE;
+        // the columns of the kept namespaces, null if every namespace is kept
+        private int @Nullable [] columns;
+        // the kept primary class names by the primary class names of the file, only if the primary namespace changes
+        @Nullable
+        private Map<String, String> classes;
+        
+        Visitor(MappingsVisitor delegate, MappingsLoadOptions options, StringPool stringPool) {
+            this.delegate = delegate;
+            this.options = options;
+            this.stringPool = stringPool;
+            this.comments = options.hasComments();
+            this.methods = options.loads(MappingsEntryType.METHOD);
+            this.fields = options.loads(MappingsEntryType.FIELD);
+            this.parameters = options.loads(MappingsEntryType.PARAMETER);
+            this.locals = options.loads(MappingsEntryType.LOCAL_VARIABLE);
+            this.classFilter = options.getClassFilter();
+        }
         
-        Visitor(boolean slim) {
-            this.slim = slim;
+        /**
+         * Creates a visitor for another part of the same file, the header must have been visited.
+         */
+        public Visitor fork(MappingsVisitor delegate) {
+            Visitor visitor = new Visitor(delegate, options, stringPool);
+            visitor.columns = columns;
+            visitor.classes = classes;
+            return visitor;
         }
         
         public void start(TinyMetadata metadata) {
-            this.tree = new TinyTreeImpl(metadata, Stream.empty());
-            this.parameterDummy = new MappedImpl(tree, new String[0], null) {
-                @Override
-                public MappingsEntryType getType() {
-                    return MappingsEntryType.PARAMETER;
-                }
-            };
-            this.localsDummy = new MappedImpl(tree, new String[0], null) {
-                @Override
-                public MappingsEntryType getType() {
-                    return MappingsEntryType.LOCAL_VARIABLE;
+            delegate.visitHeader(project(metadata));
+        }
+        
+        private TinyMetadata project(TinyMetadata metadata) {
+            List<String> namespaces = options.getNamespaces();
+            if (namespaces == null) return metadata;
+            columns = new int[namespaces.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = metadata.getNamespaces().indexOf(namespaces.get(i));
+                if (columns[i] < 0) {
+                    throw new IllegalArgumentException("Unknown namespace \"" + namespaces.get(i) + "\", the mappings have " + metadata.getNamespaces() + "!");
                 }
-            };
+            }
+            return MutableTinyMetadata.create(metadata.getMajorVersion(), metadata.getMinorVersion(), namespaces, metadata.getProperties());
+        }
+        
+        public boolean remapsDescriptors() {
+            return columns != null && columns[0] != 0;
+        }
+        
+        private String[] names(PartGetter name) {
+            return columns == null ? name.getRawNames() : name.getNames(columns);
+        }
+        
+        private String descriptor(String descriptor) {
+            if (classes == null) return descriptor;
+            Map<String, String> classes = this.classes;
+            return stringPool.intern(DescriptorRemapper.remapDescriptor(descriptor, name -> classes.getOrDefault(name, name)));
+        }
+        
+        public boolean skips(int indent) {
+            return indent > skipBelow;
+        }
+        
+        public void pushSkipped() {
+            levels[depth++] = null;
+        }
+        
+        /**
+         * Skips an entry which is not loaded, along with its children.
+         */
+        private void skip() {
+            skipBelow = depth;
+            levels[depth++] = null;
+        }
+        
+        private void push(MappingsEntryType type, boolean visitChildren) {
+            if (!visitChildren) {
+                skipBelow = depth;
+            }
+            levels[depth++] = type;
+        }
+        
+        /**
+         * Returns the names of a class, or {@code null} if the class is not loaded.
+         */
+        public String @Nullable [] classNames(PartGetter name) {
+            String[] names = names(name);
+            return classFilter != null && !classFilter.test(names[0]) ? null : names;
         }
         
         public void pushClass(PartGetter name) {
-            MutableClassDef clz = this.tree.getOrCreateClass(name.getRawNames()[0]);
-            for (int i = 1; i < name.getRawNames().length; i++) {
-                clz.setName(i, name.getRawNames()[i]);
+            String[] names = classNames(name);
+            if (names == null) {
+                skip();
+                return;
             }
-            inClass = clz;
-            stack.addLast(clz);
+            
+            push(MappingsEntryType.CLASS, delegate.visitClass(names) && (methods || fields || comments));
         }
         
         public void pushField(PartGetter name, String descriptor) {
-            if (inClass == null)
-                throw new IllegalStateException();
-            
-            MutableFieldDef field = inClass.getOrCreateField(name.getRawNames()[0], descriptor);
-            for (int i = 1; i < name.getRawNames().length; i++) {
-                field.setName(i, name.getRawNames()[i]);
+            if (!fields) {
+                skip();
+                return;
             }
-            stack.addLast(field);
+            
+            push(MappingsEntryType.FIELD, delegate.visitField(descriptor(descriptor), names(name)) && comments);
         }
         
         public void pushMethod(PartGetter name, String descriptor) {
-            if (inClass == null)
-                throw new IllegalStateException();
-            
-            MutableMethodDef method = inClass.getOrCreateMethod(name.getRawNames()[0], descriptor);
-            for (int i = 1; i < name.getRawNames().length; i++) {
-                method.setName(i, name.getRawNames()[i]);
+            if (!methods) {
+                skip();
+                return;
             }
-            inMethod = method;
-            stack.addLast(method);
+            
+            push(MappingsEntryType.METHOD, delegate.visitMethod(descriptor(descriptor), names(name)) && (parameters || locals || comments));
         }
         
         public void pushParameter(PartGetter name, int localVariableIndex) {
-            if (inMethod == null) {
-                throw new IllegalStateException();
-            }
-            
-            if (slim) {
-                stack.addLast(parameterDummy);
+            if (!parameters) {
+                skip();
                 return;
             }
             
-            MutableParameterDef par = inMethod.getOrCreateParameter(localVariableIndex, name.getRawNames()[0]);
-            for (int i = 1; i < name.getRawNames().length; i++) {
-                par.setName(i, name.getRawNames()[i]);
-            }
-            stack.addLast(par);
+            push(MappingsEntryType.PARAMETER, delegate.visitParameter(localVariableIndex, names(name)) && comments);
         }
         
         public void pushLocalVariable(PartGetter name, int localVariableIndex, int localVariableStartOffset, int localVariableTableIndex) {
-            if (inMethod == null) {
-                throw new IllegalStateException();
-            }
-            
-            stack.addLast(localsDummy);
-            
-           /* if (slim) {
-                stack.addLast(localsDummy);
+            if (!locals) {
+                skip();
                 return;
             }
             
-            LocalVariableImpl var = inMethod.getLocalVariables(namespaceMapper, name.getRawNames(), localVariableIndex, localVariableStartOffset, localVariableTableIndex);
-            inMethod.localVariables.add(var);
-            stack.addLast(var);*/
+            push(MappingsEntryType.LOCAL_VARIABLE, delegate.visitLocalVariable(localVariableIndex, localVariableStartOffset, localVariableTableIndex, names(name)));
         }
         
-        public void pushComment(String comment) {
-            if (stack.isEmpty()) {
-                throw new IllegalStateException("Nothing to append comment on!");
-            }
-            
-            
-            if (pushedComment) {
-                throw new IllegalStateException("Commenting on a comment!");
-            }
-            
-            if (!slim) {
-                stack.peekLast().setComment(comment);
+        public void pushComment(@Nullable String comment) {
+            if (comment != null) {
+                delegate.visitComment(comment);
             }
-            pushedComment = true;
+            pushSkipped();
         }
         
         public void pop(int count) {
-            if (pushedComment) {
-                pushedComment = false;
-                count--;
-            }
             for (int i = 0; i < count; i++) {
-                stack.removeLast();
+                MappingsEntryType type = levels[--depth];
+                if (type != null) {
+                    levels[depth] = null;
+                    delegate.visitEntryEnd(type);
+                }
             }
+            if (depth <= skipBelow) {
+                skipBelow = Integer.MAX_VALUE;
+            }
+        }
+        
+        public void end() {
+            delegate.visitEnd();
         }
     }
     
@@ -375,7 +903,7 @@ public final class TinyReader {
             }
             
             @Override
-            void visit(Visitor visitor, String[] parts, int indent, boolean escapedStrings) {
+            void visit(Visitor visitor, LineSource parts, int indent, boolean escapedStrings) {
                 visitor.pushClass(makeGetter(parts, indent, escapedStrings));
             }
         },
@@ -387,8 +915,8 @@ public final class TinyReader {
             }
             
             @Override
-            void visit(Visitor visitor, String[] parts, int indent, boolean escapedStrings) {
-                visitor.pushField(makeGetter(parts, indent, escapedStrings), unescapeOpt(parts[indent + 1], escapedStrings));
+            void visit(Visitor visitor, LineSource parts, int indent, boolean escapedStrings) {
+                visitor.pushField(makeGetter(parts, indent, escapedStrings), parts.name(indent + 1, escapedStrings));
             }
         },
         // m desc names...
@@ -399,8 +927,8 @@ public final class TinyReader {
             }
             
             @Override
-            void visit(Visitor visitor, String[] parts, int indent, boolean escapedStrings) {
-                visitor.pushMethod(makeGetter(parts, indent, escapedStrings), unescapeOpt(parts[indent + 1], escapedStrings));
+            void visit(Visitor visitor, LineSource parts, int indent, boolean escapedStrings) {
+                visitor.pushMethod(makeGetter(parts, indent, escapedStrings), parts.name(indent + 1, escapedStrings));
             }
         },
         // p lvIndex names...
@@ -411,8 +939,8 @@ public final class TinyReader {
             }
             
             @Override
-            void visit(Visitor visitor, String[] parts, int indent, boolean escapedStrings) {
-                visitor.pushParameter(makeGetter(parts, indent, escapedStrings), Integer.parseInt(parts[indent + 1]));
+            void visit(Visitor visitor, LineSource parts, int indent, boolean escapedStrings) {
+                visitor.pushParameter(makeGetter(parts, indent, escapedStrings), parts.getInt(indent + 1));
             }
         },
         // v lvIndex lvStartOffset lvtIndex names...
@@ -423,8 +951,8 @@ public final class TinyReader {
             }
             
             @Override
-            void visit(Visitor visitor, String[] parts, int indent, boolean escapedStrings) {
-                visitor.pushLocalVariable(makeGetter(parts, indent, escapedStrings), Integer.parseInt(parts[indent + 1]), Integer.parseInt(parts[indent + 2]), Integer.parseInt(parts[indent + 3]));
+            void visit(Visitor visitor, LineSource parts, int indent, boolean escapedStrings) {
+                visitor.pushLocalVariable(makeGetter(parts, indent, escapedStrings), parts.getInt(indent + 1), parts.getInt(indent + 2), parts.getInt(indent + 3));
             }
         },
         // c comment
@@ -447,8 +975,9 @@ public final class TinyReader {
             }
             
             @Override
-            void visit(Visitor visitor, String[] parts, int indent, boolean escapedStrings) {
-                visitor.pushComment(unescape(parts[indent + 1]));
+            void visit(Visitor visitor, LineSource parts, int indent, boolean escapedStrings) {
+                // Comments which are not loaded are not decoded
+                visitor.pushComment(visitor.comments ? unescape(parts.get(indent + 1)) : null);
             }
         };
         
@@ -464,20 +993,20 @@ public final class TinyReader {
             this.namespaced = namespaced;
         }
         
-        static TinyState get(int indent, String identifier) {
-            switch (identifier) {
-                case "c":
+        static TinyState get(int indent, LineSource parts) {
+            switch (parts.identifier(indent)) {
+                case 'c':
                     return indent == 0 ? CLASS : COMMENT;
-                case "m":
+                case 'm':
                     return METHOD;
-                case "f":
+                case 'f':
                     return FIELD;
-                case "p":
+                case 'p':
                     return PARAMETER;
-                case "v":
+                case 'v':
                     return LOCAL_VARIABLE;
                 default:
-                    throw new IllegalArgumentException("Invalid identifier \"" + identifier + "\"!");
+                    throw new IllegalArgumentException("Invalid identifier \"" + parts.get(indent) + "\"!");
             }
         }
         
@@ -487,9 +1016,9 @@ public final class TinyReader {
         
         abstract boolean checkStack(TinyState[] stack, int currentIndent);
         
-        abstract void visit(Visitor visitor, String[] parts, int indent, boolean escapedStrings);
+        abstract void visit(Visitor visitor, LineSource parts, int indent, boolean escapedStrings);
         
-        PartGetter makeGetter(String[] parts, int indent, boolean escapedStrings) {
+        PartGetter makeGetter(LineSource parts, int indent, boolean escapedStrings) {
             return new PartGetter(indent + actualParts, parts, escapedStrings);
         }
     }
@@ -497,10 +1026,6 @@ public final class TinyReader {
     private static final String TO_ESCAPE = "\\\n\r\0\t";
     private static final String ESCAPED = "\\nr0t";
     
-    private static String unescapeOpt(String raw, boolean escapedStrings) {
-        return escapedStrings ? unescape(raw) : raw;
-    }
-    
     private static String unescape(String str) {
         // copied from matcher, lazy!
         int pos = str.indexOf('\\');
@@ -532,10 +1057,10 @@ public final class TinyReader {
     
     private static final class PartGetter {
         private final int offset;
-        private final String[] parts;
+        private final LineSource parts;
         private final boolean escapedStrings;
         
-        PartGetter(int offset, String[] parts, boolean escapedStrings) {
+        PartGetter(int offset, LineSource parts, boolean escapedStrings) {
             this.offset = offset;
             this.parts = parts;
             this.escapedStrings = escapedStrings;
@@ -543,23 +1068,42 @@ public final class TinyReader {
         
         public String get(int namespace) {
             int index = offset + namespace;
-            while (parts[index].isEmpty())
+            while (parts.isEmpty(index))
                 index--;
-            return unescapeOpt(parts[index], escapedStrings);
+            return parts.name(index, escapedStrings);
         }
         
         public String getRaw(int namespace) {
-            return unescapeOpt(parts[offset + namespace], escapedStrings);
+            return parts.name(offset + namespace, escapedStrings);
         }
         
         public String[] getRawNames() {
-            if (!escapedStrings) {
-                return Arrays.copyOfRange(parts, offset, parts.length);
-            }
-            
-            final String[] ret = new String[parts.length - offset];
+            final String[] ret = new String[parts.size() - offset];
             for (int i = 0; i < ret.length; i++) {
-                ret[i] = unescape(parts[i + offset]);
+                ret[i] = parts.name(i + offset, escapedStrings);
+            }
+            return ret;
+        }
+        
+        /**
+         * Returns the names of the given columns, empty names are resolved against the other columns
+         * and are only kept empty if they resolve to the same name as the previous kept column.
+         */
+        public String[] getNames(int[] columns) {
+            final String[] ret = new String[columns.length];
+            String previous = null;
+            for (int i = 0; i < columns.length; i++) {
+                int index = offset + columns[i];
+                String resolved;
+                if (!parts.isEmpty(index)) {
+                    ret[i] = resolved = parts.name(index, escapedStrings);
+                } else {
+                    while (index > offset && parts.isEmpty(index))
+                        index--;
+                    resolved = parts.isEmpty(index) ? "" : parts.name(index, escapedStrings);
+                    ret[i] = i > 0 && resolved.equals(previous) ? "" : resolved;
+                }
+                previous = resolved;
             }
             return ret;
         }
@@ -574,4 +1118,314 @@ public final class TinyReader {
             return ret;
         }
     }
+    
+    /**
+     * A cursor over the lines of a tiny file, the parts of a line are the tab separated columns,
+     * including the empty columns of the indent.
+     */
+    private static abstract class LineSource {
+        final StringPool pool;
+        private boolean hasLine;
+        
+        LineSource(StringPool pool) {
+            this.pool = pool;
+        }
+        
+        /**
+         * Advances to the next line.
+         *
+         * @return whether there is a line, {@code false} at the end of the input
+         */
+        final boolean next() throws IOException {
+            return hasLine = advance();
+        }
+        
+        final boolean hasLine() {
+            return hasLine;
+        }
+        
+        abstract boolean advance() throws IOException;
+        
+        abstract int indent();
+        
+        abstract int size();
+        
+        abstract String get(int index);
+        
+        /**
+         * Returns the part from the pool, comments and other unique strings should use {@link #get(int)}.
+         */
+        abstract String pooled(int index);
+        
+        final String name(int index, boolean escapedStrings) {
+            String raw = pooled(index);
+            if (!escapedStrings) return raw;
+            String unescaped = unescape(raw);
+            return unescaped == raw ? raw : pool.intern(unescaped);
+        }
+        
+        abstract boolean isEmpty(int index);
+        
+        /**
+         * Returns the character of a single character part, or {@code 0} if the part is not a single character.
+         */
+        abstract char identifier(int index);
+        
+        abstract int getInt(int index);
+        
+        abstract String line();
+        
+        /**
+         * Skips the lines following the current line which are indented deeper than {@code indent},
+         * the next call to {@link #next()} reads the line after them.
+         */
+        abstract void skipChildren(int indent) throws IOException;
+        
+        /**
+         * Reads the kept primary names of the classes from the current line to the end, without moving the cursor.
+         */
+        abstract Map<String, String> readClassNames(Visitor visitor, boolean escapedStrings);
+    }
+    
+    private static final class StringLineSource extends LineSource {
+        private final BufferedReader reader;
+        @Nullable
+        private String pending;
+        private String line;
+        private String[] parts;
+        private int indent;
+        
+        StringLineSource(BufferedReader reader, StringPool pool) {
+            super(pool);
+            this.reader = reader;
+        }
+        
+        @Override
+        boolean advance() throws IOException {
+            line = pending != null ? pending : reader.readLine();
+            pending = null;
+            if (line == null) {
+                parts = null;
+                return false;
+            }
+            indent = countIndent(line);
+            parts = line.split("\t", -1);
+            return true;
+        }
+        
+        @Override
+        int indent() {
+            return indent;
+        }
+        
+        @Override
+        int size() {
+            return parts.length;
+        }
+        
+        @Override
+        String get(int index) {
+            return parts[index];
+        }
+        
+        @Override
+        String pooled(int index) {
+            return pool.intern(parts[index]);
+        }
+        
+        @Override
+        boolean isEmpty(int index) {
+            return parts[index].isEmpty();
+        }
+        
+        @Override
+        char identifier(int index) {
+            return parts[index].length() == 1 ? parts[index].charAt(0) : 0;
+        }
+        
+        @Override
+        int getInt(int index) {
+            return Integer.parseInt(parts[index]);
+        }
+        
+        @Override
+        String line() {
+            return line;
+        }
+        
+        @Override
+        void skipChildren(int indent) throws IOException {
+            String next = reader.readLine();
+            while (next != null && countIndent(next) > indent) {
+                next = reader.readLine();
+            }
+            pending = next;
+        }
+        
+        @Override
+        Map<String, String> readClassNames(Visitor visitor, boolean escapedStrings) {
+            throw new UnsupportedOperationException("Lines from a reader can only be read once!");
+        }
+    }
+    
+    private static final class ByteLineSource extends LineSource {
+        private final ByteBuffer buffer;
+        private final ByteBuffer view;
+        private final int limit;
+        private int position;
+        private int lineStart;
+        private int indent;
+        private int size;
+        // ends[i] is the exclusive end of the i-th part, the next part starts right after it
+        private int[] ends = new int[8];
+        private byte[] scratch = new byte[128];
+        
+        ByteLineSource(ByteBuffer buffer, int start, int limit, StringPool pool) {
+            super(pool);
+            this.buffer = buffer;
+            this.view = buffer.duplicate();
+            this.position = start;
+            this.limit = limit;
+        }
+        
+        @Override
+        boolean advance() {
+            if (position >= limit) return false;
+            final ByteBuffer buffer = this.buffer;
+            final int start = position;
+            int i = start;
+            int size = 0;
+            byte b = 0;
+            while (i < limit && (b = buffer.get(i)) != '\n') {
+                if (b == '\t') {
+                    if (size == ends.length) ends = Arrays.copyOf(ends, size * 2);
+                    ends[size++] = i;
+                }
+                i++;
+            }
+            position = i + 1;
+            int end = i;
+            if (end > start && buffer.get(end - 1) == '\r') end--;
+            if (size == ends.length) ends = Arrays.copyOf(ends, size * 2);
+            ends[size++] = end;
+            this.size = size;
+            this.lineStart = start;
+            int indent = 0;
+            while (indent < size - 1 && ends[indent] == start + indent) {
+                indent++;
+            }
+            this.indent = indent;
+            return true;
+        }
+        
+        private int start(int index) {
+            return index == 0 ? lineStart : ends[index - 1] + 1;
+        }
+        
+        @Override
+        int indent() {
+            return indent;
+        }
+        
+        @Override
+        int size() {
+            return size;
+        }
+        
+        @Override
+        String get(int index) {
+            if (index >= size) throw new ArrayIndexOutOfBoundsException(index);
+            return decode(start(index), ends[index]);
+        }
+        
+        @Override
+        String pooled(int index) {
+            if (index >= size) throw new ArrayIndexOutOfBoundsException(index);
+            return pool.intern(buffer, start(index), ends[index]);
+        }
+        
+        @Override
+        boolean isEmpty(int index) {
+            if (index >= size) throw new ArrayIndexOutOfBoundsException(index);
+            return start(index) == ends[index];
+        }
+        
+        @Override
+        char identifier(int index) {
+            int start = start(index);
+            return ends[index] - start == 1 ? (char) (buffer.get(start) & 0xFF) : 0;
+        }
+        
+        @Override
+        int getInt(int index) {
+            int start = start(index), end = ends[index];
+            if (start == end) throw new NumberFormatException("For input string: \"\"");
+            boolean negative = buffer.get(start) == '-';
+            int i = negative ? start + 1 : start;
+            if (i == end || end - i > 9) return Integer.parseInt(get(index));
+            int value = 0;
+            for (; i < end; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) throw new NumberFormatException("For input string: \"" + get(index) + "\"");
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+        
+        @Override
+        String line() {
+            return decode(lineStart, ends[size - 1]);
+        }
+        
+        @Override
+        void skipChildren(int indent) {
+            final ByteBuffer buffer = this.buffer;
+            int i = position;
+            while (i + indent < limit && isIndented(i, indent)) {
+                while (i < limit && buffer.get(i) != '\n') i++;
+                i++;
+            }
+            position = i;
+        }
+        
+        private boolean isIndented(int lineStart, int indent) {
+            for (int i = lineStart; i <= lineStart + indent; i++) {
+                if (buffer.get(i) != '\t') return false;
+            }
+            return true;
+        }
+        
+        @Override
+        Map<String, String> readClassNames(Visitor visitor, boolean escapedStrings) {
+            Map<String, String> classes = new HashMap<>();
+            ByteLineSource line = new ByteLineSource(buffer, lineStart, limit, pool);
+            PartGetter names = TinyState.CLASS.makeGetter(line, 0, escapedStrings);
+            int i = lineStart;
+            while (i < limit) {
+                if (buffer.get(i) == 'c' && i + 1 < limit && buffer.get(i + 1) == '\t') {
+                    line.position = i;
+                    line.advance();
+                    classes.put(line.name(1, escapedStrings), names.getNames(visitor.columns)[0]);
+                    i = line.position;
+                } else {
+                    // only class lines are tokenized
+                    while (i < limit && buffer.get(i) != '\n') i++;
+                    i++;
+                }
+            }
+            return classes;
+        }
+        
+        String decode(int start, int end) {
+            int length = end - start;
+            if (length == 0) return "";
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+            }
+            if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            ((Buffer) view).position(start);
+            view.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
 }
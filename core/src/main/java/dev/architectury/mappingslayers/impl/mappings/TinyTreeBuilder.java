@@ -0,0 +1,210 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.mappings;
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.*;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.mappingslayers.impl.tiny.TinyTreeImpl;
+import net.fabricmc.mapping.reader.v2.TinyMetadata;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A {@link MappingsVisitor} building a {@link TinyTreeImpl}, local variables are not kept.
+ */
+public class TinyTreeBuilder implements TreeBuilder {
+    private @MonotonicNonNull TinyTreeImpl tree;
+    // the entries of the open levels, null for the entries which are not kept
+    private MutableMapped[] stack = new MutableMapped[4];
+    private int depth;
+    private @MonotonicNonNull MutableClassDef inClass = null;
+    private @MonotonicNonNull MutableMethodDef inMethod = null;
+    private @Nullable List<MutableClassDef> detachedClasses;
+    private @Nullable Map<String, MutableClassDef> detachedClassMap;
+    
+    /**
+     * Creates a builder collecting its classes into {@link #getDetachedClasses()} instead of adding them to the tree,
+     * the entries are still created for {@code tree} so that they can be {@linkplain #splice(List) spliced} into it later.
+     * The header is not visited on detached builders.
+     */
+    public static TinyTreeBuilder detached(TinyTreeImpl tree) {
+        TinyTreeBuilder builder = new TinyTreeBuilder();
+        builder.tree = tree;
+        builder.detachedClasses = new ArrayList<>();
+        builder.detachedClassMap = new HashMap<>();
+        return builder;
+    }
+    
+    @Override
+    public TinyTreeImpl getTree() {
+        return tree;
+    }
+    
+    public List<MutableClassDef> getDetachedClasses() {
+        return detachedClasses;
+    }
+    
+    @Override
+    public void visitHeader(TinyMetadata metadata) {
+        this.tree = new TinyTreeImpl(metadata, Stream.empty());
+    }
+    
+    @Override
+    public boolean visitClass(String[] names) {
+        MutableClassDef clz;
+        if (detachedClasses != null) {
+            clz = detachedClassMap.get(names[0]);
+            if (clz == null) {
+                clz = this.tree.constructClass(names[0]);
+                detachedClasses.add(clz);
+                detachedClassMap.put(names[0], clz);
+            }
+        } else {
+            clz = this.tree.getOrCreateClass(names[0]);
+        }
+        for (int i = 1; i < names.length; i++) {
+            clz.setName(i, names[i]);
+        }
+        inClass = clz;
+        push(clz);
+        return true;
+    }
+    
+    @Override
+    public boolean visitField(String descriptor, String[] names) {
+        if (inClass == null)
+            throw new IllegalStateException();
+        
+        MutableFieldDef field = inClass.getOrCreateField(names[0], descriptor);
+        for (int i = 1; i < names.length; i++) {
+            field.setName(i, names[i]);
+        }
+        push(field);
+        return true;
+    }
+    
+    @Override
+    public boolean visitMethod(String descriptor, String[] names) {
+        if (inClass == null)
+            throw new IllegalStateException();
+        
+        MutableMethodDef method = inClass.getOrCreateMethod(names[0], descriptor);
+        for (int i = 1; i < names.length; i++) {
+            method.setName(i, names[i]);
+        }
+        inMethod = method;
+        push(method);
+        return true;
+    }
+    
+    @Override
+    public boolean visitParameter(int lvIndex, String[] names) {
+        if (inMethod == null)
+            throw new IllegalStateException();
+        
+        MutableParameterDef par = inMethod.getOrCreateParameter(lvIndex, names[0]);
+        for (int i = 0; i < names.length; i++) {
+            par.setName(i, names[i]);
+        }
+        push(par);
+        return true;
+    }
+    
+    @Override
+    public boolean visitLocalVariable(int lvIndex, int lvStartOffset, int lvtIndex, String[] names) {
+        if (inMethod == null)
+            throw new IllegalStateException();
+        
+        push(null);
+        return false;
+    }
+    
+    @Override
+    public void visitComment(String comment) {
+        if (depth == 0)
+            throw new IllegalStateException("Nothing to append comment on!");
+        
+        MutableMapped mapped = stack[depth - 1];
+        if (mapped != null) {
+            mapped.setComment(comment);
+        }
+    }
+    
+    @Override
+    public void visitEntryEnd(MappingsEntryType type) {
+        stack[--depth] = null;
+    }
+    
+    private void push(@Nullable MutableMapped mapped) {
+        if (depth == stack.length) {
+            MutableMapped[] newStack = new MutableMapped[depth * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+        stack[depth++] = mapped;
+    }
+    
+    /**
+     * Adds classes collected by a detached builder to the tree, classes which already exist are merged.
+     */
+    public void splice(List<MutableClassDef> classes) {
+        for (MutableClassDef classDef : classes) {
+            MutableClassDef existing = tree.getDefaultNamespaceClassMapMutable().get(classDef.getName(0));
+            if (existing == null) {
+                tree.getClassesMutable().add(classDef);
+            } else {
+                merge(classDef, existing);
+            }
+        }
+    }
+    
+    private void merge(MutableClassDef from, MutableClassDef to) {
+        copyNames(from, to);
+        for (MutableFieldDef field : from.getFieldsMutable()) {
+            copyNames(field, to.getOrCreateField(field.getName(0), field.getDescriptor(0)));
+        }
+        for (MutableMethodDef method : from.getMethodsMutable()) {
+            MutableMethodDef toMethod = to.getOrCreateMethod(method.getName(0), method.getDescriptor(0));
+            copyNames(method, toMethod);
+            for (MutableParameterDef parameter : method.getParametersMutable()) {
+                MutableParameterDef toParameter = toMethod.getOrCreateParameter(parameter.getLocalVariableIndex(), parameter.getName(0));
+                toParameter.setName(0, parameter.getName(0));
+                copyNames(parameter, toParameter);
+            }
+        }
+    }
+    
+    private void copyNames(MutableMapped from, MutableMapped to) {
+        int namespaces = tree.getMetadata().getNamespaces().size();
+        for (int i = 1; i < namespaces; i++) {
+            to.setName(i, from.getRawName(i));
+        }
+        if (from.getComment() != null) {
+            to.setComment(from.getComment());
+        }
+    }
+}
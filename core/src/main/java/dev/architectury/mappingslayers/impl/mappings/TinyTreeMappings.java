@@ -22,26 +22,65 @@ package dev.architectury.mappingslayers.impl.mappings;
 import dev.architectury.mappingslayers.api.Mappings;
 import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
 import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.SimpleMappingsTransformation;
 import dev.architectury.mappingslayers.api.utils.MappingsUtils;
 import dev.architectury.mappingslayers.impl.serializer.TinyTreeSerializer;
+import dev.architectury.mappingslayers.impl.tiny.TinyTreeImpl;
+import dev.architectury.mappingslayers.impl.tiny.utils.TinyTreeEntryIterator;
 import net.fabricmc.mapping.tree.TinyTree;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class TinyTreeMappings implements Mappings {
+    private static final int PARALLEL_THRESHOLD = 1024;
     private MutableTinyTree tree;
     private String uuid;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
     
     public TinyTreeMappings(TinyTree tree, String uuid) {
-        this.tree = MappingsUtils.copyAsMutable(tree);
+        this(uuid, MappingsUtils.copyAsMutable(tree));
+    }
+    
+    private TinyTreeMappings(String uuid, MutableTinyTree tree) {
+        this.tree = tree;
         this.uuid = uuid;
     }
     
+    /**
+     * Creates mappings owning {@code tree} without copying it, the tree is transformed in place.
+     */
+    public static TinyTreeMappings owning(MutableTinyTree tree, String uuid) {
+        return new TinyTreeMappings(uuid, tree);
+    }
+    
+    /**
+     * Returns the tree of the mappings, not a copy, the transformations modify it in place.
+     */
+    public MutableTinyTree getTree() {
+        return tree;
+    }
+    
+    /**
+     * Sets the pool running the parallel safe transformations.
+     */
+    public TinyTreeMappings withPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+    
     @Override
     public String serializeToTiny() {
         return TinyTreeSerializer.serialize(tree);
     }
     
+    @Override
+    public void serializeToTiny(Writer writer) throws IOException {
+        TinyTreeSerializer.serialize(tree, writer);
+    }
+    
     @Override
     public String uuid() {
         return uuid;
@@ -49,8 +88,14 @@ public class TinyTreeMappings implements Mappings {
     
     @Override
     public Mappings withTransformations(List<MappingsTransformation> transformations) {
-        for (MappingsTransformation transformation : transformations) {
-            tree = transformation.modify(tree);
+        for (MappingsTransformation transformation : FusedTransformation.plan(transformations)) {
+            if (transformation.isParallelSafe() && FusedTransformation.isEntryLocal(transformation) && tree instanceof TinyTreeImpl
+                && tree.getClassesMutable().size() > PARALLEL_THRESHOLD) {
+                SimpleMappingsTransformation simple = (SimpleMappingsTransformation) transformation;
+                TinyTreeEntryIterator.iterateParallel(tree, pool, simple::handleType, simple::handle);
+            } else {
+                tree = transformation.modify(tree);
+            }
         }
         return this;
     }
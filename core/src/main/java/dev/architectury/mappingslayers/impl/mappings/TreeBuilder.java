@@ -0,0 +1,47 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.mappings;
+
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.mappingslayers.impl.columnar.ColumnarStorage;
+import dev.architectury.mappingslayers.impl.columnar.ColumnarTree;
+import dev.architectury.mappingslayers.impl.columnar.ColumnarTreeBuilder;
+
+/**
+ * A {@link MappingsVisitor} building a tree, the tree is available once the header was visited.
+ */
+public interface TreeBuilder extends MappingsVisitor {
+    MutableTinyTree getTree();
+    
+    /**
+     * Returns a builder for the tree representation chosen by the options.
+     */
+    static TreeBuilder create(MappingsLoadOptions options) {
+        if (options.isOffHeap()) {
+            return new ColumnarTreeBuilder(metadata -> new ColumnarTree(metadata, ColumnarStorage.create(options)));
+        }
+        if (options.isColumnar()) {
+            return new ColumnarTreeBuilder();
+        }
+        return new TinyTreeBuilder();
+    }
+}
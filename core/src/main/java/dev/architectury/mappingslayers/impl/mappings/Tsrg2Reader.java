@@ -19,69 +19,547 @@
 
 package dev.architectury.mappingslayers.impl.mappings;
 
-import dev.architectury.mappingslayers.api.mutable.*;
-import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyMetadata;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.StringPool;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.refmapremapper.utils.DescriptorRemapper;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.function.Predicate;
 
+/**
+ * Reads tsrg2 mappings, lines are tokenized in place and only the kept tokens become (pooled) strings.
+ */
 public class Tsrg2Reader {
     public static MutableTinyTree read(Iterator<String> reader) {
-        if (!reader.hasNext()) {
+        return read(reader, MappingsLoadOptions.defaults());
+    }
+    
+    public static MutableTinyTree read(Iterator<String> reader, MappingsLoadOptions options) {
+        TreeBuilder builder = TreeBuilder.create(options);
+        visit(reader, builder, options);
+        return builder.getTree();
+    }
+    
+    public static MutableTinyTree read(CharSequence content, MappingsLoadOptions options) {
+        TreeBuilder builder = TreeBuilder.create(options);
+        visit(content, builder, options);
+        return builder.getTree();
+    }
+    
+    public static MutableTinyTree read(Path path, MappingsLoadOptions options) throws IOException {
+        TreeBuilder builder = TreeBuilder.create(options);
+        visit(path, builder, options);
+        return builder.getTree();
+    }
+    
+    public static MutableTinyTree read(InputStream stream, MappingsLoadOptions options) throws IOException {
+        TreeBuilder builder = TreeBuilder.create(options);
+        visit(stream, builder, options);
+        return builder.getTree();
+    }
+    
+    public static MutableTinyTree read(ReadableByteChannel channel, MappingsLoadOptions options) throws IOException {
+        TreeBuilder builder = TreeBuilder.create(options);
+        visit(channel, builder, options);
+        return builder.getTree();
+    }
+    
+    public static MutableTinyTree read(ByteBuffer buffer, MappingsLoadOptions options) {
+        TreeBuilder builder = TreeBuilder.create(options);
+        visit(buffer, builder, options);
+        return builder.getTree();
+    }
+    
+    public static void visit(Iterator<String> reader, MappingsVisitor visitor) {
+        visit(reader, visitor, MappingsLoadOptions.defaults());
+    }
+    
+    /**
+     * Visits tsrg2 mappings line by line, fields without a descriptor are visited with an empty descriptor.
+     * The lines are read once, so the options cannot change the primary namespace.
+     */
+    public static void visit(Iterator<String> reader, MappingsVisitor visitor, MappingsLoadOptions options) {
+        visitUnchecked(new CharLines(reader, options.createStringPool()), visitor, options);
+    }
+    
+    public static void visit(CharSequence content, MappingsVisitor visitor, MappingsLoadOptions options) {
+        visitUnchecked(new CharLines(content, options.createStringPool()), visitor, options);
+    }
+    
+    /**
+     * Visits a tsrg2 file by memory mapping it.
+     */
+    public static void visit(Path path, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            visit(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), visitor, options);
+        }
+    }
+    
+    /**
+     * Visits tsrg2 mappings from a stream, the stream is read in chunks and is not closed.
+     * The lines are read once, so the options cannot change the primary namespace.
+     */
+    public static void visit(InputStream stream, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        visit(Channels.newChannel(stream), visitor, options);
+    }
+    
+    /**
+     * Visits tsrg2 mappings from a channel, the channel is read in chunks and is not closed.
+     * The lines are read once, so the options cannot change the primary namespace.
+     */
+    public static void visit(ReadableByteChannel channel, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        visit(new ByteLines(channel, options.createStringPool()), visitor, options);
+    }
+    
+    /**
+     * Visits tsrg2 mappings from the remaining UTF-8 bytes of a buffer, the position of the buffer is left untouched.
+     */
+    public static void visit(ByteBuffer buffer, MappingsVisitor visitor, MappingsLoadOptions options) {
+        visitUnchecked(new ByteLines(buffer, options.createStringPool()), visitor, options);
+    }
+    
+    private static void visitUnchecked(Lines lines, MappingsVisitor visitor, MappingsLoadOptions options) {
+        try {
+            visit(lines, visitor, options);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Visits the lines, applying the class filter, the entry types and the namespaces of the options,
+     * tsrg2 has no comments.
+     */
+    private static void visit(Lines lines, MappingsVisitor visitor, MappingsLoadOptions options) throws IOException {
+        if (!lines.next()) {
             throw new IllegalStateException("Cannot read empty tsrg2!");
         }
-        String header = reader.next();
-        if (!header.startsWith("tsrg2")) {
+        if (lines.indent != 0 || lines.size == 0 || !lines.tokenStartsWith(0, "tsrg2")) {
             throw new IllegalStateException("Tsrg2 must start with 'tsrg2'!");
         }
-        List<String> namespaces = Stream.of(header.split(" ")).skip(1).collect(Collectors.toList());
-        MutableTinyTree tree = MappingsUtils.create(MutableTinyMetadata.create(2, 0, namespaces, new HashMap<>()));
-        MutableClassDef classDef = null;
-        MutableMethodDef methodDef = null;
-        while (reader.hasNext()) {
-            String line = reader.next();
-            int indent = line.lastIndexOf('\t') + 1;
-            String[] group = line.substring(indent).split(" ");
+        List<String> namespaces = new ArrayList<>(lines.size - 1);
+        for (int i = 1; i < lines.size; i++) {
+            namespaces.add(lines.token(i));
+        }
+        int[] columns = columns(namespaces, options.getNamespaces());
+        // the kept primary class names by the primary class names of the file, only if the primary namespace changes
+        Map<String, String> classes = columns != null && columns[0] != 0 ? readClasses(lines, columns[0]) : null;
+        visitor.visitHeader(MutableTinyMetadata.create(2, 0, columns != null ? options.getNamespaces() : namespaces, new HashMap<>()));
+        final boolean fields = options.loads(MappingsEntryType.FIELD);
+        final boolean methods = options.loads(MappingsEntryType.METHOD);
+        final boolean parameters = options.loads(MappingsEntryType.PARAMETER);
+        final Predicate<String> classFilter = options.getClassFilter();
+        // the entry type of each open level, null for entries which were not visited
+        MappingsEntryType[] levels = new MappingsEntryType[3];
+        int depth = 0;
+        int skipBelow = Integer.MAX_VALUE;
+        while (lines.next()) {
+            int indent = lines.indent;
+            if (indent == 2 && lines.size > 0 && lines.tokenEquals(0, "static")) continue;
+            if (indent > depth || indent > 2) {
+                throw new IllegalStateException("Broken indent on line \"" + lines.line() + "\"!");
+            }
+            while (depth > indent) {
+                MappingsEntryType type = levels[--depth];
+                if (type != null) visitor.visitEntryEnd(type);
+            }
+            if (depth <= skipBelow) skipBelow = Integer.MAX_VALUE;
+            if (indent > skipBelow) {
+                levels[depth++] = null;
+                continue;
+            }
+            MappingsEntryType type;
+            boolean visitChildren;
             switch (indent) {
-                case 0:
-                    classDef = tree.getOrCreateClass(group[0]);
-                    for (int i = 1; i < group.length; i++) {
-                        classDef.setName(i, group[i]);
+                case 0: {
+                    String[] names = lines.names(0, 0, columns);
+                    if (classFilter != null && !classFilter.test(names[0])) {
+                        type = null;
+                        visitChildren = false;
+                    } else {
+                        type = MappingsEntryType.CLASS;
+                        visitChildren = visitor.visitClass(names) && (methods || fields);
                     }
                     break;
+                }
                 case 1:
-                    if (group.length == namespaces.size() + 1) {
-                        String descriptor = group[1];
-                        if (descriptor.startsWith("(")) {
-                            methodDef = classDef.getOrCreateMethod(group[0], descriptor);
-                            for (int i = 2; i < group.length; i++) {
-                                methodDef.setName(i - 1, group[i]);
-                            }
+                    if (lines.size == namespaces.size() + 1) {
+                        boolean method = lines.tokenStartsWith(1, "(");
+                        if (!(method ? methods : fields)) {
+                            type = null;
+                            visitChildren = false;
+                        } else if (method) {
+                            type = MappingsEntryType.METHOD;
+                            visitChildren = visitor.visitMethod(descriptor(lines, classes), lines.names(0, 1, columns)) && parameters;
                         } else {
-                            MutableFieldDef fieldDef = classDef.getOrCreateField(group[0], descriptor);
-                            for (int i = 2; i < group.length; i++) {
-                                fieldDef.setName(i - 1, group[i]);
-                            }
+                            type = MappingsEntryType.FIELD;
+                            visitChildren = visitor.visitField(descriptor(lines, classes), lines.names(0, 1, columns));
                         }
+                    } else if (!fields) {
+                        type = null;
+                        visitChildren = false;
                     } else {
-                        MutableFieldDef fieldDef = classDef.getOrCreateField(group[0], "");
-                        for (int i = 1; i < group.length; i++) {
-                            fieldDef.setName(i, group[i]);
-                        }
+                        type = MappingsEntryType.FIELD;
+                        visitChildren = visitor.visitField("", lines.names(0, 0, columns));
                     }
                     break;
-                case 2:
-                    if (group[0].equals("static")) continue;
-                    MutableParameterDef parameterDef = methodDef.getOrCreateParameter(Integer.parseInt(group[0]), group[1]);
-                    for (int i = 2; i < group.length; i++) {
-                        parameterDef.setName(i - 1, group[i]);
+                default:
+                    if (!parameters) {
+                        type = null;
+                        visitChildren = false;
+                    } else {
+                        type = MappingsEntryType.PARAMETER;
+                        visitChildren = visitor.visitParameter(lines.tokenInt(0), lines.names(1, 0, columns));
                     }
                     break;
             }
+            if (!visitChildren) skipBelow = depth;
+            levels[depth++] = type;
+        }
+        while (depth > 0) {
+            MappingsEntryType type = levels[--depth];
+            if (type != null) visitor.visitEntryEnd(type);
+        }
+        visitor.visitEnd();
+    }
+    
+    /**
+     * Returns the columns of the kept namespaces, or {@code null} if every namespace is kept.
+     */
+    private static int @Nullable [] columns(List<String> namespaces, @Nullable List<String> kept) {
+        if (kept == null) return null;
+        int[] columns = new int[kept.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = namespaces.indexOf(kept.get(i));
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("Unknown namespace \"" + kept.get(i) + "\", the mappings have " + namespaces + "!");
+            }
+        }
+        return columns;
+    }
+    
+    /**
+     * Reads the class names in the given column by the first column, then rewinds the lines to after the header.
+     */
+    private static Map<String, String> readClasses(Lines lines, int column) throws IOException {
+        lines.mark();
+        Map<String, String> classes = new HashMap<>();
+        while (lines.next()) {
+            if (lines.indent == 0 && lines.size > column) {
+                classes.put(lines.token(0), lines.token(column));
+            }
+        }
+        lines.reset();
+        return classes;
+    }
+    
+    private static String descriptor(Lines lines, @Nullable Map<String, String> classes) {
+        String descriptor = lines.token(1);
+        if (classes == null) return descriptor;
+        return lines.pool.intern(DescriptorRemapper.remapDescriptor(descriptor, name -> classes.getOrDefault(name, name)));
+    }
+    
+    /**
+     * A cursor over the lines of a tsrg2 file, the tokens of a line are separated by spaces after the indent.
+     */
+    private static abstract class Lines {
+        final StringPool pool;
+        int indent;
+        int size;
+        // the bounds of the tokens of the current line
+        int[] starts = new int[8];
+        int[] ends = new int[8];
+        
+        Lines(StringPool pool) {
+            this.pool = pool;
+        }
+        
+        abstract boolean next() throws IOException;
+        
+        abstract String token(int index);
+        
+        abstract char charAt(int position);
+        
+        abstract String line();
+        
+        /**
+         * Marks the current position to {@linkplain #reset() return} to, only for lines which are not streamed.
+         */
+        abstract void mark();
+        
+        abstract void reset();
+        
+        void addToken(int start, int end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size++] = end;
+        }
+        
+        /**
+         * Tokenizes the line between {@code start} and {@code end}, trailing empty tokens are dropped.
+         */
+        void tokenize(int start, int end) {
+            if (end > start && charAt(end - 1) == '\r') end--;
+            int i = start;
+            while (i < end && charAt(i) == '\t') i++;
+            indent = i - start;
+            size = 0;
+            int tokenStart = i;
+            for (; i < end; i++) {
+                if (charAt(i) == ' ') {
+                    addToken(tokenStart, i);
+                    tokenStart = i + 1;
+                }
+            }
+            addToken(tokenStart, end);
+            while (size > 0 && starts[size - 1] == ends[size - 1]) size--;
+        }
+        
+        /**
+         * Returns the tokens from {@code from}, skipping the token at {@code skip} if it is not {@code 0}.
+         */
+        String[] tokens(int from, int skip) {
+            String[] tokens = new String[skip == 0 ? size - from : size - from - 1];
+            for (int i = from, j = 0; i < size; i++) {
+                if (skip != 0 && i == skip) continue;
+                tokens[j++] = token(i);
+            }
+            return tokens;
+        }
+        
+        /**
+         * Returns the names of the kept namespaces, the names start at token {@code from} and skip the token at
+         * {@code skip} like {@link #tokens(int, int)}, every namespace is kept if {@code columns} is {@code null}.
+         */
+        String[] names(int from, int skip, int @Nullable [] columns) {
+            if (columns == null) return tokens(from, skip);
+            String[] names = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                int index = from + columns[i];
+                if (skip != 0 && index >= skip) index++;
+                names[i] = index < size ? token(index) : "";
+            }
+            return names;
+        }
+        
+        boolean tokenEquals(int index, String str) {
+            return ends[index] - starts[index] == str.length() && tokenStartsWith(index, str);
+        }
+        
+        boolean tokenStartsWith(int index, String str) {
+            if (ends[index] - starts[index] < str.length()) return false;
+            for (int i = 0; i < str.length(); i++) {
+                if (charAt(starts[index] + i) != str.charAt(i)) return false;
+            }
+            return true;
+        }
+        
+        int tokenInt(int index) {
+            int start = starts[index], end = ends[index];
+            if (start == end || end - start > 9) return Integer.parseInt(token(index));
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = charAt(i) - '0';
+                if (digit < 0 || digit > 9) return Integer.parseInt(token(index));
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+    }
+    
+    private static final class CharLines extends Lines {
+        @Nullable
+        private final Iterator<String> iterator;
+        private CharSequence content;
+        private int position;
+        private int mark;
+        private int lineStart, lineEnd;
+        
+        CharLines(Iterator<String> iterator, StringPool pool) {
+            super(pool);
+            this.iterator = iterator;
+            this.content = "";
+        }
+        
+        CharLines(CharSequence content, StringPool pool) {
+            super(pool);
+            this.iterator = null;
+            this.content = content;
+        }
+        
+        @Override
+        boolean next() {
+            if (iterator != null) {
+                if (!iterator.hasNext()) return false;
+                content = iterator.next();
+                lineStart = 0;
+                lineEnd = content.length();
+            } else {
+                if (position >= content.length()) return false;
+                lineStart = position;
+                int i = position;
+                while (i < content.length() && content.charAt(i) != '\n') i++;
+                lineEnd = i;
+                position = i + 1;
+            }
+            tokenize(lineStart, lineEnd);
+            return true;
+        }
+        
+        @Override
+        String token(int index) {
+            return pool.intern(content, starts[index], ends[index]);
+        }
+        
+        @Override
+        char charAt(int position) {
+            return content.charAt(position);
+        }
+        
+        @Override
+        String line() {
+            return content.subSequence(lineStart, lineEnd).toString();
+        }
+        
+        @Override
+        void mark() {
+            if (iterator != null) {
+                throw new UnsupportedOperationException("Cannot change the primary namespace of tsrg2 lines from an iterator!");
+            }
+            mark = position;
+        }
+        
+        @Override
+        void reset() {
+            position = mark;
+        }
+    }
+    
+    private static final class ByteLines extends Lines {
+        private static final int CHUNK_SIZE = 1 << 16;
+        @Nullable
+        private final ReadableByteChannel channel;
+        private ByteBuffer buffer;
+        private int position;
+        private int mark;
+        private int limit;
+        private int lineStart, lineEnd;
+        private boolean eof;
+        
+        ByteLines(ByteBuffer buffer, StringPool pool) {
+            super(pool);
+            this.channel = null;
+            this.buffer = buffer;
+            this.position = buffer.position();
+            this.limit = buffer.limit();
+            this.eof = true;
+        }
+        
+        ByteLines(ReadableByteChannel channel, StringPool pool) {
+            super(pool);
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        }
+        
+        @Override
+        boolean next() throws IOException {
+            int i = position;
+            while (true) {
+                while (i < limit && buffer.get(i) != '\n') i++;
+                if (i < limit || eof) break;
+                // the line continues past the chunk, read more
+                i -= fill();
+            }
+            if (position >= limit) return false;
+            lineStart = position;
+            lineEnd = i;
+            position = i + 1;
+            tokenize(lineStart, lineEnd);
+            return true;
+        }
+        
+        /**
+         * Moves the current line to the start of the buffer and reads more bytes after it.
+         *
+         * @return the distance the line was moved by
+         */
+        private int fill() throws IOException {
+            int shift = position;
+            int remaining = limit - position;
+            if (remaining == buffer.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+                System.arraycopy(buffer.array(), position, grown.array(), 0, remaining);
+                buffer = grown;
+            } else {
+                System.arraycopy(buffer.array(), position, buffer.array(), 0, remaining);
+            }
+            position = 0;
+            limit = remaining;
+            ((Buffer) buffer).limit(buffer.capacity());
+            ((Buffer) buffer).position(limit);
+            int read = channel.read(buffer);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+            return shift;
+        }
+        
+        @Override
+        String token(int index) {
+            return pool.intern(buffer, starts[index], ends[index]);
+        }
+        
+        @Override
+        char charAt(int position) {
+            return (char) (buffer.get(position) & 0xFF);
+        }
+        
+        @Override
+        String line() {
+            byte[] bytes = new byte[lineEnd - lineStart];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(lineStart + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        @Override
+        void mark() {
+            if (channel != null) {
+                throw new UnsupportedOperationException("Cannot change the primary namespace of tsrg2 mappings from a stream!");
+            }
+            mark = position;
+        }
+        
+        @Override
+        void reset() {
+            position = mark;
         }
-        return tree;
     }
 }
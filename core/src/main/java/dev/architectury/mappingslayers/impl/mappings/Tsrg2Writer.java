@@ -49,8 +49,8 @@ public class Tsrg2Writer {
     private static void writeMethod(TinyMetadata metadata, MethodDef def, StringBuilder builder) {
         writeMapped(true, metadata, def, builder);
         for (ParameterDef parameter : def.getParameters()) {
-            builder.append("\t\t").append(parameter.getLocalVariableIndex());
-            writeMapped(true, metadata, parameter, builder);
+            builder.append("\t\t").append(parameter.getLocalVariableIndex()).append(' ');
+            writeMapped(false, metadata, parameter, builder);
         }
     }
     
@@ -23,9 +23,13 @@ import dev.architectury.mappingslayers.impl.tiny.MappedImpl;
 import net.fabricmc.mapping.reader.v2.TinyMetadata;
 import net.fabricmc.mapping.tree.*;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
 
 public class TinyTreeSerializer {
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    
     public static String serialize(TinyTree tree) {
         TinyMetadata metadata = tree.getMetadata();
         StringBuilder builder = new StringBuilder();
@@ -38,7 +42,30 @@ public class TinyTreeSerializer {
         return builder.toString();
     }
     
-    private static void writeClass(TinyMetadata metadata, ClassDef def, StringBuilder builder) {
+    /**
+     * Serializes a tree to a writer, only buffering a few classes at a time.
+     */
+    public static void serialize(TinyTree tree, Writer writer) throws IOException {
+        TinyMetadata metadata = tree.getMetadata();
+        StringBuilder builder = new StringBuilder();
+        writeHeader(metadata, builder);
+        
+        for (ClassDef classDef : tree.getClasses()) {
+            writeClass(metadata, classDef, builder);
+            if (builder.length() >= FLUSH_THRESHOLD) {
+                flush(builder, writer);
+            }
+        }
+        
+        flush(builder, writer);
+    }
+    
+    public static void flush(StringBuilder builder, Writer writer) throws IOException {
+        writer.append(builder);
+        builder.setLength(0);
+    }
+    
+    public static void writeClass(TinyMetadata metadata, ClassDef def, StringBuilder builder) {
         builder.append('c');
         writeMapped(1, metadata, def, builder);
         for (MethodDef methodDef : def.getMethods()) {
@@ -81,7 +108,7 @@ public class TinyTreeSerializer {
         }
     }
     
-    private static void writeHeader(TinyMetadata metadata, StringBuilder builder) {
+    public static void writeHeader(TinyMetadata metadata, StringBuilder builder) {
         builder.append("tiny\t");
         builder.append(metadata.getMajorVersion());
         builder.append('\t');
@@ -31,17 +31,18 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 public class ClassDefImpl extends MappedImpl implements MutableClassDef {
-    protected final List<MutableMethodDef> methods;
-    protected final List<MutableFieldDef> fields;
+    protected List<MutableMethodDef> methods;
+    protected List<MutableFieldDef> fields;
     
     public ClassDefImpl(TinyTreeImpl namespaceGetter, String[] names, @Nullable String comment,
             List<MutableMethodDef> methods, List<MutableFieldDef> fields) {
         super(namespaceGetter, names, comment);
-        this.methods = methods;
-        this.fields = fields;
+        this.methods = MemberList.of(methods);
+        this.fields = MemberList.of(fields);
     }
     
     public static ClassDefImpl of(TinyTreeImpl parent, String[] names, @Nullable String comment,
@@ -55,6 +56,13 @@ public class ClassDefImpl extends MappedImpl implements MutableClassDef {
                 def.getMethods(), def.getFields());
     }
     
+    @Override
+    public void setName(int namespace, String name) {
+        String oldName = getRawName(namespace);
+        super.setName(namespace, name);
+        if (!Objects.equals(oldName, name)) parent.classRenamed(this, namespace, oldName);
+    }
+    
     @Override
     public List<MutableMethodDef> getMethodsMutable() {
         return methods;
@@ -72,25 +80,21 @@ public class ClassDefImpl extends MappedImpl implements MutableClassDef {
     
     @Override
     public MutableFieldDef getOrCreateField(String primaryName, String primaryDescriptor) {
-        for (MutableFieldDef fieldDef : getFieldsMutable()) {
-            if (fieldDef.getName(0).equals(primaryName) && fieldDef.getDescriptor(0).equals(primaryDescriptor)) {
-                return fieldDef;
-            }
-        }
+        MutableFieldDef fieldDef = ((MemberList<MutableFieldDef>) getFieldsMutable()).get(primaryName, primaryDescriptor);
+        if (fieldDef != null)
+            return fieldDef;
         MutableFieldDef def = constructField(primaryName, primaryDescriptor);
-        fields.add(def);
+        getFieldsMutable().add(def);
         return def;
     }
     
     @Override
     public MutableMethodDef getOrCreateMethod(String primaryName, String primaryDescriptor) {
-        for (MutableMethodDef methodDef : getMethodsMutable()) {
-            if (methodDef.getName(0).equals(primaryName) && methodDef.getDescriptor(0).equals(primaryDescriptor)) {
-                return methodDef;
-            }
-        }
+        MutableMethodDef methodDef = ((MemberList<MutableMethodDef>) getMethodsMutable()).get(primaryName, primaryDescriptor);
+        if (methodDef != null)
+            return methodDef;
         MutableMethodDef def = constructMethod(primaryName, primaryDescriptor);
-        methods.add(def);
+        getMethodsMutable().add(def);
         return def;
     }
     
@@ -122,15 +126,15 @@ public class ClassDefImpl extends MappedImpl implements MutableClassDef {
         
         ClassDefImpl classDef = (ClassDefImpl) o;
         
-        if (!methods.equals(classDef.methods)) return false;
-        return fields.equals(classDef.fields);
+        if (!getMethodsMutable().equals(classDef.getMethodsMutable())) return false;
+        return getFieldsMutable().equals(classDef.getFieldsMutable());
     }
     
     @Override
     public int hashCode() {
         int result = super.hashCode();
-        result = 31 * result + methods.hashCode();
-        result = 31 * result + fields.hashCode();
+        result = 31 * result + getMethodsMutable().hashCode();
+        result = 31 * result + getFieldsMutable().hashCode();
         return result;
     }
 }
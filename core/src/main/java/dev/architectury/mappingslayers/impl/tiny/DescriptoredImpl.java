@@ -19,21 +19,51 @@
 
 package dev.architectury.mappingslayers.impl.tiny;
 
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
 import dev.architectury.mappingslayers.api.mutable.MutableDescriptored;
+import dev.architectury.mappingslayers.api.utils.DescriptorTemplate;
 import dev.architectury.mappingslayers.api.utils.MappingsUtils;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 public abstract class DescriptoredImpl extends MappedImpl implements MutableDescriptored {
     private String descriptor;
+    // the remapped descriptors, replaced as a whole so walks running in parallel only see complete caches
+    @Nullable
+    private volatile Remapped remapped;
+    // the member list which indexes this member, dropped when the primary name or descriptor changes
+    @Nullable
+    private volatile MemberList<?> memberList;
     
     public DescriptoredImpl(TinyTreeImpl parent, String[] names, @Nullable String comment, String descriptor) {
         super(parent, names, comment);
         this.descriptor = descriptor;
     }
     
+    @Override
+    public void setName(int namespace, String name) {
+        boolean renamed = namespace == 0 && !Objects.equals(name, getRawName(0));
+        super.setName(namespace, name);
+        if (renamed) keyChanged();
+    }
+    
     @Override
     public void setPrimaryDescriptor(String descriptor) {
+        boolean changed = !Objects.equals(descriptor, this.descriptor);
         this.descriptor = descriptor;
+        this.remapped = null;
+        if (changed) keyChanged();
+    }
+    
+    void indexedBy(MemberList<?> memberList) {
+        this.memberList = memberList;
+    }
+    
+    private void keyChanged() {
+        MemberList<?> memberList = this.memberList;
+        if (memberList != null) memberList.memberRenamed();
     }
     
     @Override
@@ -59,8 +89,87 @@ public abstract class DescriptoredImpl extends MappedImpl implements MutableDesc
     public String getDescriptor(int namespace) {
         if (namespace == 0) {
             return descriptor;
-        } else {
-            return MappingsUtils.remapDescriptorFromPrimary(parent, descriptor, namespace);
+        }
+        String descriptor = this.descriptor;
+        Remapped published = this.remapped;
+        Remapped remapped = published;
+        if (remapped == null || remapped.primary != descriptor) {
+            remapped = new Remapped(descriptor, DescriptorTemplate.parse(descriptor));
+        }
+        if (remapped.template.getClassCount() == 0) {
+            if (remapped != published) this.remapped = remapped;
+            return descriptor;
+        }
+        int stamp = parent.getClassStamp();
+        String result = remapped.get(namespace, stamp);
+        if (result == null) {
+            int setStamp = parent.getClassSetStamp();
+            if (remapped.references == null || remapped.referenceStamp != setStamp) {
+                remapped = remapped.withReferences(resolve(remapped.template), setStamp);
+            }
+            result = remapped.format(namespace);
+            remapped = remapped.with(namespace, stamp, result, parent.getMetadata().getNamespaces().size());
+        }
+        if (remapped != published) this.remapped = remapped;
+        return result;
+    }
+    
+    private MutableClassDef[] resolve(DescriptorTemplate template) {
+        MutableClassDef[] references = new MutableClassDef[template.getClassCount()];
+        for (int i = 0; i < references.length; i++) {
+            references[i] = parent.getDefaultNamespaceClassMapMutable().get(template.getClassName(i));
+        }
+        return references;
+    }
+    
+    /**
+     * The primary descriptor parsed with the classes it references and its remapped forms, never modified once published.
+     */
+    private static final class Remapped {
+        private final String primary;
+        private final DescriptorTemplate template;
+        @Nullable
+        private final MutableClassDef[] references;
+        private final int referenceStamp;
+        // the descriptors remapped to the other namespaces, valid while the classes of the tree are unchanged
+        @Nullable
+        private final String[] descriptors;
+        private final int descriptorStamp;
+        
+        private Remapped(String primary, DescriptorTemplate template) {
+            this(primary, template, null, 0, null, 0);
+        }
+        
+        private Remapped(String primary, DescriptorTemplate template, @Nullable MutableClassDef[] references, int referenceStamp,
+                @Nullable String[] descriptors, int descriptorStamp) {
+            this.primary = primary;
+            this.template = template;
+            this.references = references;
+            this.referenceStamp = referenceStamp;
+            this.descriptors = descriptors;
+            this.descriptorStamp = descriptorStamp;
+        }
+        
+        @Nullable
+        String get(int namespace, int stamp) {
+            return descriptors == null || descriptorStamp != stamp || namespace >= descriptors.length ? null : descriptors[namespace];
+        }
+        
+        String format(int namespace) {
+            MutableClassDef[] references = this.references;
+            return template.format(i -> references[i] == null ? template.getClassName(i) : references[i].getName(namespace));
+        }
+        
+        Remapped withReferences(MutableClassDef[] references, int stamp) {
+            return new Remapped(primary, template, references, stamp, null, 0);
+        }
+        
+        Remapped with(int namespace, int stamp, String descriptor, int namespaces) {
+            String[] descriptors = this.descriptors == null || descriptorStamp != stamp
+                    ? new String[Math.max(namespaces, namespace + 1)]
+                    : Arrays.copyOf(this.descriptors, Math.max(this.descriptors.length, namespace + 1));
+            descriptors[namespace] = descriptor;
+            return new Remapped(primary, template, references, referenceStamp, descriptors, stamp);
         }
     }
     
@@ -0,0 +1,86 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.tiny;
+
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableFieldDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A class whose members and comment are decoded on first access, the names of the class are known up front.
+ */
+public class LazyClassDefImpl extends ClassDefImpl {
+    @Nullable
+    private volatile Supplier<MutableClassDef> body;
+    
+    /**
+     * @param body decodes the members and the comment of the class, the entries must belong to {@code parent}
+     */
+    public LazyClassDefImpl(TinyTreeImpl parent, String[] names, Supplier<MutableClassDef> body) {
+        super(parent, names, null, null, null);
+        this.body = body;
+    }
+    
+    public boolean isDecoded() {
+        return body == null;
+    }
+    
+    private void decode() {
+        if (body == null) return;
+        synchronized (this) {
+            Supplier<MutableClassDef> body = this.body;
+            if (body == null) return;
+            MutableClassDef decoded = body.get();
+            this.methods = MemberList.of(decoded.getMethodsMutable());
+            this.fields = MemberList.of(decoded.getFieldsMutable());
+            super.setComment(decoded.getComment());
+            this.body = null;
+        }
+    }
+    
+    @Override
+    public List<MutableMethodDef> getMethodsMutable() {
+        decode();
+        return methods;
+    }
+    
+    @Override
+    public List<MutableFieldDef> getFieldsMutable() {
+        decode();
+        return fields;
+    }
+    
+    @Nullable
+    @Override
+    public String getComment() {
+        decode();
+        return super.getComment();
+    }
+    
+    @Override
+    public void setComment(@Nullable String comment) {
+        decode();
+        super.setComment(comment);
+    }
+}
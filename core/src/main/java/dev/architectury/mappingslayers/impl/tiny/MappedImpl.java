@@ -68,7 +68,7 @@ public abstract class MappedImpl implements MutableMapped {
     
     @Override
     public void setName(String namespace, String name) {
-        names[parent.applyAsInt(namespace)] = name;
+        setName(parent.applyAsInt(namespace), name);
     }
     
     @Override
@@ -104,12 +104,13 @@ public abstract class MappedImpl implements MutableMapped {
         MappedImpl mapped = (MappedImpl) o;
         
         if (!Arrays.equals(names, mapped.names)) return false;
-        return Objects.equals(comment, mapped.comment);
+        return Objects.equals(getComment(), mapped.getComment());
     }
     
     @Override
     public int hashCode() {
         int result = Arrays.hashCode(names);
+        String comment = getComment();
         result = 31 * result + (comment != null ? comment.hashCode() : 0);
         return result;
     }
@@ -0,0 +1,255 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.tiny;
+
+import com.google.common.collect.ForwardingList;
+import com.google.common.collect.ForwardingListIterator;
+import dev.architectury.mappingslayers.api.mutable.MutableDescriptored;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The fields or methods of a class, indexed by their primary name and descriptor.
+ * <p>
+ * The index is built on the first lookup, additions keep it in sync while other modifications drop it,
+ * as does an indexed member changing its primary name or descriptor. Only the list of that class is dropped.
+ */
+class MemberList<T extends MutableDescriptored> extends ForwardingList<T> {
+    private final List<T> parent;
+    // the list this list is a view of
+    @Nullable
+    private final MemberList<T> owner;
+    @Nullable
+    private volatile Map<MemberKey, T> index;
+    // the stamp the index was built at
+    private int indexStamp;
+    // changed whenever the index is dropped, so that an index built concurrently is not kept
+    private volatile int stamp;
+    
+    MemberList(List<T> parent) {
+        this(parent, null);
+    }
+    
+    private MemberList(List<T> parent, @Nullable MemberList<T> owner) {
+        this.parent = parent;
+        this.owner = owner;
+    }
+    
+    static <T extends MutableDescriptored> List<T> of(@Nullable List<T> list) {
+        if (list == null || list instanceof MemberList) return list;
+        return new MemberList<>(list);
+    }
+    
+    @Override
+    protected List<T> delegate() {
+        return parent;
+    }
+    
+    @Nullable
+    T get(String primaryName, String primaryDescriptor) {
+        Map<MemberKey, T> index = this.index;
+        int stamp = this.stamp;
+        if (index == null || indexStamp != stamp) {
+            index = new HashMap<>(parent.size() * 2);
+            for (T member : parent) {
+                indexed(member);
+                index.putIfAbsent(new MemberKey(member.getName(0), member.getDescriptor(0)), member);
+            }
+            this.indexStamp = stamp;
+            this.index = index;
+        }
+        return index.get(new MemberKey(primaryName, primaryDescriptor));
+    }
+    
+    /**
+     * Drops the index after an indexed member changed its primary name or descriptor.
+     */
+    void memberRenamed() {
+        invalidate();
+    }
+    
+    private void invalidate() {
+        this.stamp++;
+        this.index = null;
+        if (owner != null) owner.invalidate();
+    }
+    
+    private void indexed(T member) {
+        if (member instanceof DescriptoredImpl) {
+            ((DescriptoredImpl) member).indexedBy(this);
+        }
+    }
+    
+    private void indexAdded(T element) {
+        if (owner != null) owner.invalidate();
+        Map<MemberKey, T> index = this.index;
+        if (index != null) {
+            indexed(element);
+            index.putIfAbsent(new MemberKey(element.getName(0), element.getDescriptor(0)), element);
+        }
+    }
+    
+    @Override
+    public boolean add(T element) {
+        boolean add = super.add(element);
+        if (add) indexAdded(element);
+        return add;
+    }
+    
+    @Override
+    public void add(int index, T element) {
+        // a member inserted before an existing member with the same key would take over its lookups
+        invalidate();
+        super.add(index, element);
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends T> elements) {
+        boolean add = super.addAll(elements);
+        if (add) {
+            for (T element : elements) {
+                indexAdded(element);
+            }
+        }
+        return add;
+    }
+    
+    @Override
+    public boolean addAll(int index, Collection<? extends T> elements) {
+        invalidate();
+        return super.addAll(index, elements);
+    }
+    
+    @Override
+    public T set(int index, T element) {
+        invalidate();
+        return super.set(index, element);
+    }
+    
+    @Override
+    public T remove(int index) {
+        invalidate();
+        return super.remove(index);
+    }
+    
+    @Override
+    public boolean remove(Object element) {
+        invalidate();
+        return super.remove(element);
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        invalidate();
+        return super.removeAll(elements);
+    }
+    
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        invalidate();
+        return parent.removeIf(filter);
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        invalidate();
+        return super.retainAll(elements);
+    }
+    
+    @Override
+    public void clear() {
+        invalidate();
+        super.clear();
+    }
+    
+    @Override
+    public Iterator<T> iterator() {
+        return listIterator();
+    }
+    
+    @Override
+    public ListIterator<T> listIterator() {
+        return listIterator(0);
+    }
+    
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        ListIterator<T> iterator = super.listIterator(index);
+        return new ForwardingListIterator<T>() {
+            @Override
+            protected ListIterator<T> delegate() {
+                return iterator;
+            }
+            
+            @Override
+            public void remove() {
+                invalidate();
+                super.remove();
+            }
+            
+            @Override
+            public void set(T element) {
+                invalidate();
+                super.set(element);
+            }
+            
+            @Override
+            public void add(T element) {
+                invalidate();
+                super.add(element);
+            }
+        };
+    }
+    
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+        return new MemberList<>(super.subList(fromIndex, toIndex), this);
+    }
+    
+    private static final class MemberKey {
+        private final String name;
+        private final String descriptor;
+        
+        MemberKey(String name, String descriptor) {
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MemberKey)) return false;
+            MemberKey that = (MemberKey) o;
+            return name.equals(that.name) && descriptor.equals(that.descriptor);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + descriptor.hashCode();
+        }
+    }
+}
@@ -28,7 +28,6 @@ import net.fabricmc.mapping.tree.ParameterDef;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -39,7 +38,7 @@ public class MethodDefImpl extends DescriptoredImpl implements MutableMethodDef
     public MethodDefImpl(TinyTreeImpl parent, String[] names, @Nullable String comment, String descriptor,
             List<MutableParameterDef> parameters, Collection<LocalVariableDef> localVariables) {
         super(parent, names, comment, descriptor);
-        this.parameters = parameters;
+        this.parameters = ParameterList.of(parameters);
         this.localVariables = localVariables;
     }
     
@@ -73,18 +72,20 @@ public class MethodDefImpl extends DescriptoredImpl implements MutableMethodDef
     
     @Override
     public MutableParameterDef getOrCreateParameter(int lvIndex, String primaryName) {
-        for (MutableParameterDef parameterDef : getParametersMutable()) {
-            if (parameterDef.getLocalVariableIndex() == lvIndex) {
-                parameterDef.setName(0, primaryName);
-                return parameterDef;
-            }
-        }
+        ParameterList parameters = (ParameterList) this.parameters;
+        MutableParameterDef parameterDef = parameters.find(lvIndex);
+        if (parameterDef != null) return parameterDef;
         MutableParameterDef def = constructParameter(lvIndex, primaryName);
-        parameters.add(def);
-        parameters.sort(Comparator.comparingInt(ParameterDef::getLocalVariableIndex));
+        parameters.insert(def);
         return def;
     }
     
+    @Override
+    @Nullable
+    public MutableParameterDef findParameter(int lvIndex) {
+        return ((ParameterList) this.parameters).find(lvIndex);
+    }
+    
     @Override
     public MutableParameterDef constructParameter(int lvIndex, String primaryName) {
         String[] names = new String[parent.getMetadata().getNamespaces().size()];
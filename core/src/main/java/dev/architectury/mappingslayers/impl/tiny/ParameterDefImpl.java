@@ -25,6 +25,9 @@ import org.jetbrains.annotations.Nullable;
 
 public class ParameterDefImpl extends MappedImpl implements MutableParameterDef {
     private int lvIndex;
+    // the parameter list which indexes this parameter, dropped when the local variable index changes
+    @Nullable
+    private volatile ParameterList parameterList;
     
     public ParameterDefImpl(TinyTreeImpl namespaceGetter, String[] names, @Nullable String comment, int lvIndex) {
         super(namespaceGetter, names, comment);
@@ -33,7 +36,14 @@ public class ParameterDefImpl extends MappedImpl implements MutableParameterDef
     
     @Override
     public void setLocalVariableIndex(int index) {
+        boolean moved = index != lvIndex;
         this.lvIndex = index;
+        ParameterList parameterList = this.parameterList;
+        if (moved && parameterList != null) parameterList.parameterMoved();
+    }
+    
+    void indexedBy(ParameterList parameterList) {
+        this.parameterList = parameterList;
     }
     
     @Override
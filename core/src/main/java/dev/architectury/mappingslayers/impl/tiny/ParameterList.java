@@ -0,0 +1,255 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package dev.architectury.mappingslayers.impl.tiny;
+
+import com.google.common.collect.ForwardingList;
+import com.google.common.collect.ForwardingListIterator;
+import dev.architectury.mappingslayers.api.mutable.MutableParameterDef;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The parameters of a method, ordered by local variable index and indexed by it.
+ * <p>
+ * The index is built on the first lookup, additions keep it in sync while other modifications drop it,
+ * as does an indexed parameter changing its local variable index.
+ */
+class ParameterList extends ForwardingList<MutableParameterDef> {
+    private final List<MutableParameterDef> parent;
+    // the list this list is a view of
+    @Nullable
+    private final ParameterList owner;
+    @Nullable
+    private volatile Map<Integer, MutableParameterDef> index;
+    // the stamp the index was built at
+    private int indexStamp;
+    // changed whenever the index is dropped, so that an index built concurrently is not kept
+    private volatile int stamp;
+    
+    ParameterList(List<MutableParameterDef> parent) {
+        this(parent, null);
+    }
+    
+    private ParameterList(List<MutableParameterDef> parent, @Nullable ParameterList owner) {
+        this.parent = parent;
+        this.owner = owner;
+    }
+    
+    static List<MutableParameterDef> of(List<MutableParameterDef> list) {
+        if (list instanceof ParameterList) return list;
+        return new ParameterList(list);
+    }
+    
+    @Override
+    protected List<MutableParameterDef> delegate() {
+        return parent;
+    }
+    
+    /**
+     * Returns the first parameter with the local variable index, or {@code null} if there is none.
+     */
+    @Nullable
+    MutableParameterDef find(int lvIndex) {
+        Map<Integer, MutableParameterDef> index = this.index;
+        int stamp = this.stamp;
+        if (index == null || indexStamp != stamp) {
+            index = new HashMap<>(parent.size() * 2);
+            for (MutableParameterDef parameter : parent) {
+                indexed(parameter);
+                index.putIfAbsent(parameter.getLocalVariableIndex(), parameter);
+            }
+            this.indexStamp = stamp;
+            this.index = index;
+        }
+        return index.get(lvIndex);
+    }
+    
+    /**
+     * Inserts a parameter after the parameters with a lower or equal local variable index,
+     * parameters are usually added in order so the position is searched from the end.
+     */
+    void insert(MutableParameterDef element) {
+        int position = parent.size();
+        while (position > 0 && parent.get(position - 1).getLocalVariableIndex() > element.getLocalVariableIndex()) {
+            position--;
+        }
+        parent.add(position, element);
+        indexAdded(element);
+    }
+    
+    /**
+     * Drops the index after an indexed parameter changed its local variable index.
+     */
+    void parameterMoved() {
+        invalidate();
+    }
+    
+    private void invalidate() {
+        this.stamp++;
+        this.index = null;
+        if (owner != null) owner.invalidate();
+    }
+    
+    private void indexed(MutableParameterDef parameter) {
+        if (parameter instanceof ParameterDefImpl) {
+            ((ParameterDefImpl) parameter).indexedBy(this);
+        }
+    }
+    
+    private void indexAdded(MutableParameterDef element) {
+        if (owner != null) owner.invalidate();
+        Map<Integer, MutableParameterDef> index = this.index;
+        if (index != null) {
+            indexed(element);
+            index.putIfAbsent(element.getLocalVariableIndex(), element);
+        }
+    }
+    
+    @Override
+    public boolean add(MutableParameterDef element) {
+        boolean add = super.add(element);
+        if (add) indexAdded(element);
+        return add;
+    }
+    
+    @Override
+    public void add(int index, MutableParameterDef element) {
+        // a parameter inserted before an existing parameter with the same index would take over its lookups
+        invalidate();
+        super.add(index, element);
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends MutableParameterDef> elements) {
+        boolean add = super.addAll(elements);
+        if (add) {
+            for (MutableParameterDef element : elements) {
+                indexAdded(element);
+            }
+        }
+        return add;
+    }
+    
+    @Override
+    public boolean addAll(int index, Collection<? extends MutableParameterDef> elements) {
+        invalidate();
+        return super.addAll(index, elements);
+    }
+    
+    @Override
+    public MutableParameterDef set(int index, MutableParameterDef element) {
+        invalidate();
+        return super.set(index, element);
+    }
+    
+    @Override
+    public MutableParameterDef remove(int index) {
+        invalidate();
+        return super.remove(index);
+    }
+    
+    @Override
+    public boolean remove(Object element) {
+        invalidate();
+        return super.remove(element);
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        invalidate();
+        return super.removeAll(elements);
+    }
+    
+    @Override
+    public boolean removeIf(Predicate<? super MutableParameterDef> filter) {
+        invalidate();
+        return parent.removeIf(filter);
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        invalidate();
+        return super.retainAll(elements);
+    }
+    
+    @Override
+    public void clear() {
+        invalidate();
+        super.clear();
+    }
+    
+    @Override
+    public void sort(@Nullable Comparator<? super MutableParameterDef> comparator) {
+        invalidate();
+        parent.sort(comparator);
+    }
+    
+    @Override
+    public Iterator<MutableParameterDef> iterator() {
+        return listIterator();
+    }
+    
+    @Override
+    public ListIterator<MutableParameterDef> listIterator() {
+        return listIterator(0);
+    }
+    
+    @Override
+    public ListIterator<MutableParameterDef> listIterator(int index) {
+        ListIterator<MutableParameterDef> iterator = super.listIterator(index);
+        return new ForwardingListIterator<MutableParameterDef>() {
+            @Override
+            protected ListIterator<MutableParameterDef> delegate() {
+                return iterator;
+            }
+            
+            @Override
+            public void remove() {
+                invalidate();
+                super.remove();
+            }
+            
+            @Override
+            public void set(MutableParameterDef element) {
+                invalidate();
+                super.set(element);
+            }
+            
+            @Override
+            public void add(MutableParameterDef element) {
+                invalidate();
+                super.add(element);
+            }
+        };
+    }
+    
+    @Override
+    public List<MutableParameterDef> subList(int fromIndex, int toIndex) {
+        return new ParameterList(super.subList(fromIndex, toIndex), this);
+    }
+}
@@ -21,10 +21,13 @@ package dev.architectury.mappingslayers.impl.tiny;
 
 import com.google.common.collect.ForwardingList;
 import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableDescriptored;
 import dev.architectury.mappingslayers.api.mutable.MutableTinyMetadata;
 import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.DescriptorTemplate;
 import net.fabricmc.mapping.reader.v2.TinyMetadata;
 import net.fabricmc.mapping.tree.ClassDef;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.function.Predicate;
@@ -37,9 +40,16 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
     private final Map<String, MutableClassDef> classMap = new HashMap<>();
     private final ClassList classes;
     private final String primaryNamespace;
+    // changed whenever a class is added, removed or renamed, so that remapped descriptors are computed again
+    private volatile int classStamp;
+    // changed whenever a class is added, removed or renamed in the primary namespace, so that class references are resolved again
+    private volatile int classSetStamp;
+    // the classes by raw name of the other namespaces, built on the first lookup and dropped when a class is removed
+    private final List<Map<String, MutableClassDef>> namespaceClassMaps;
     
     public TinyTreeImpl(TinyMetadata metadata, Stream<ClassDef> classes) {
         this.metadata = new TinyMetadataImpl(metadata);
+        this.namespaceClassMaps = new ArrayList<>(Collections.nCopies(this.metadata.getNamespaces().size(), null));
         this.classes = new ClassList(classes.map(def -> ClassDefImpl.of(this, def)).collect(Collectors.toList()));
         this.primaryNamespace = this.metadata.getNamespaces().get(0);
         for (MutableClassDef classDef : this.classes) {
@@ -62,6 +72,91 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
         return classes;
     }
     
+    int getClassStamp() {
+        return classStamp;
+    }
+    
+    int getClassSetStamp() {
+        return classSetStamp;
+    }
+    
+    @Override
+    @Nullable
+    public synchronized MutableClassDef findClass(int namespace, String name) {
+        if (namespace == 0) {
+            return classMap.get(name);
+        }
+        Map<String, MutableClassDef> map = namespaceClassMaps.get(namespace);
+        if (map == null) {
+            map = new HashMap<>();
+            for (MutableClassDef classDef : classes) {
+                String rawName = classDef.getRawName(namespace);
+                if (!rawName.isEmpty()) map.putIfAbsent(rawName, classDef);
+            }
+            namespaceClassMaps.set(namespace, map);
+        }
+        return map.get(name);
+    }
+    
+    synchronized void classRenamed(MutableClassDef classDef, int namespace, String oldName) {
+        classStamp++;
+        if (namespace == 0) {
+            classSetStamp++;
+            if (classMap.get(oldName) == classDef) classMap.remove(oldName);
+            classMap.put(classDef.getRawName(0), classDef);
+            renameReferences(oldName, classDef.getRawName(0));
+            return;
+        }
+        Map<String, MutableClassDef> map = namespaceClassMaps.get(namespace);
+        if (map == null) return;
+        if (map.get(oldName) == classDef) {
+            // another class may have the old name
+            namespaceClassMaps.set(namespace, null);
+        } else if (classMap.get(classDef.getRawName(0)) == classDef) {
+            String name = classDef.getRawName(namespace);
+            if (!name.isEmpty()) map.putIfAbsent(name, classDef);
+        }
+    }
+    
+    /**
+     * Rewrites the primary descriptors which reference a class renamed in the primary namespace.
+     */
+    private void renameReferences(String oldName, String name) {
+        String reference = 'L' + oldName + ';';
+        for (MutableClassDef classDef : classes) {
+            renameReferences(classDef.getMethodsMutable(), reference, oldName, name);
+            renameReferences(classDef.getFieldsMutable(), reference, oldName, name);
+        }
+    }
+    
+    private static void renameReferences(List<? extends MutableDescriptored> members, String reference, String oldName, String name) {
+        for (MutableDescriptored member : members) {
+            String descriptor = member.getDescriptor(0);
+            if (descriptor.contains(reference)) {
+                member.setPrimaryDescriptor(DescriptorTemplate.parse(descriptor).remap(className -> className.equals(oldName) ? name : className));
+            }
+        }
+    }
+    
+    private synchronized void classAdded(MutableClassDef classDef) {
+        classStamp++;
+        classSetStamp++;
+        classMap.put(classDef.getName(primaryNamespace), classDef);
+        for (int i = 1; i < namespaceClassMaps.size(); i++) {
+            Map<String, MutableClassDef> map = namespaceClassMaps.get(i);
+            if (map != null) {
+                String rawName = classDef.getRawName(i);
+                if (!rawName.isEmpty()) map.putIfAbsent(rawName, classDef);
+            }
+        }
+    }
+    
+    private synchronized void classesChanged() {
+        classStamp++;
+        classSetStamp++;
+        Collections.fill(namespaceClassMaps, null);
+    }
+    
     @Override
     public int applyAsInt(String value) {
         return metadata.index(value);
@@ -120,7 +215,7 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
         @Override
         public boolean add(MutableClassDef element) {
             boolean add = super.add(element);
-            if (add) classMap.put(element.getName(primaryNamespace), element);
+            if (add) classAdded(element);
             return add;
         }
         
@@ -128,6 +223,7 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
         public void add(int index, MutableClassDef element) {
             super.add(index, element);
             classMap.put(element.getName(primaryNamespace), element);
+            classesChanged();
         }
         
         @Override
@@ -135,7 +231,7 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
             boolean add = super.addAll(elements);
             if (add) {
                 for (MutableClassDef element : elements) {
-                    classMap.put(element.getName(primaryNamespace), element);
+                    classAdded(element);
                 }
             }
             return add;
@@ -148,6 +244,7 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
                 for (MutableClassDef classDef : elements) {
                     classMap.put(classDef.getName(primaryNamespace), classDef);
                 }
+                classesChanged();
             }
             return add;
         }
@@ -160,14 +257,25 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
                 for (MutableClassDef classDef : (Collection<MutableClassDef>) elements) {
                     classMap.put(classDef.getName(primaryNamespace), classDef);
                 }
+                classesChanged();
             }
             return retained;
         }
         
+        @Override
+        public void clear() {
+            super.clear();
+            classMap.clear();
+            classesChanged();
+        }
+        
         @Override
         public MutableClassDef remove(int index) {
             MutableClassDef removed = super.remove(index);
-            if (removed != null) classMap.remove(removed.getName(primaryNamespace));
+            if (removed != null) {
+                classMap.remove(removed.getName(primaryNamespace));
+                classesChanged();
+            }
             return removed;
         }
         
@@ -178,6 +286,7 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
                 for (MutableClassDef classDef : (Collection<MutableClassDef>) elements) {
                     classMap.remove(classDef.getName(primaryNamespace));
                 }
+                classesChanged();
             }
             return removed;
         }
@@ -187,6 +296,7 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
             boolean removed = super.removeIf(filter);
             if (removed) {
                 classMap.values().removeIf(filter);
+                classesChanged();
             }
             return removed;
         }
@@ -194,7 +304,10 @@ public class TinyTreeImpl implements MutableTinyTree, ToIntFunction<String> {
         @Override
         public boolean remove(Object element) {
             boolean removed = super.remove(element);
-            if (removed && element instanceof MutableClassDef) classMap.remove(((MutableClassDef) element).getName(primaryNamespace));
+            if (removed && element instanceof MutableClassDef) {
+                classMap.remove(((MutableClassDef) element).getName(primaryNamespace));
+                classesChanged();
+            }
             return removed;
         }
     }
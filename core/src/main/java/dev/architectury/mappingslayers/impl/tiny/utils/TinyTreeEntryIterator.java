@@ -21,7 +21,13 @@ package dev.architectury.mappingslayers.impl.tiny.utils;
 
 import dev.architectury.mappingslayers.api.MappingsEntryType;
 import dev.architectury.mappingslayers.api.mutable.*;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.mappingslayers.impl.tiny.MappedImpl;
+import net.fabricmc.mapping.reader.v2.TinyMetadata;
+import net.fabricmc.mapping.tree.*;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -29,14 +35,41 @@ public final class TinyTreeEntryIterator {
     private TinyTreeEntryIterator() {}
     
     public static void iterate(MutableTinyTree tree, Predicate<MappingsEntryType> typePredicate, Consumer<MutableMapped> entryConsumer) {
-        boolean doClasses = typePredicate.test(MappingsEntryType.CLASS);
-        boolean doMethods = typePredicate.test(MappingsEntryType.METHOD);
-        boolean doFields = typePredicate.test(MappingsEntryType.FIELD);
-        boolean doParameters = typePredicate.test(MappingsEntryType.PARAMETER);
-        boolean doMethodsActually = doMethods || doParameters;
+        ClassWalker walker = new ClassWalker(typePredicate, entryConsumer);
         for (MutableClassDef def : tree.getClassesMutable()) {
+            walker.accept(def);
+        }
+    }
+    
+    /**
+     * Iterates the entries of each class in parallel, the entries of a class are handled in order by a single thread.
+     */
+    public static void iterateParallel(MutableTinyTree tree, ForkJoinPool pool, Predicate<MappingsEntryType> typePredicate,
+            Consumer<MutableMapped> entryConsumer) {
+        ClassWalker walker = new ClassWalker(typePredicate, entryConsumer);
+        MutableClassDef[] classes = tree.getClassesMutable().toArray(new MutableClassDef[0]);
+        pool.invoke(new WalkTask(classes, 0, classes.length, walker));
+    }
+    
+    private static class ClassWalker implements Consumer<MutableClassDef> {
+        private final boolean doClasses;
+        private final boolean doMethods;
+        private final boolean doFields;
+        private final boolean doParameters;
+        private final Consumer<MutableMapped> entryConsumer;
+        
+        private ClassWalker(Predicate<MappingsEntryType> typePredicate, Consumer<MutableMapped> entryConsumer) {
+            this.doClasses = typePredicate.test(MappingsEntryType.CLASS);
+            this.doMethods = typePredicate.test(MappingsEntryType.METHOD);
+            this.doFields = typePredicate.test(MappingsEntryType.FIELD);
+            this.doParameters = typePredicate.test(MappingsEntryType.PARAMETER);
+            this.entryConsumer = entryConsumer;
+        }
+        
+        @Override
+        public void accept(MutableClassDef def) {
             if (doClasses) entryConsumer.accept(def);
-            if (doMethodsActually) for (MutableMethodDef methodDef : def.getMethodsMutable()) {
+            if (doMethods || doParameters) for (MutableMethodDef methodDef : def.getMethodsMutable()) {
                 if (doMethods) entryConsumer.accept(methodDef);
                 if (doParameters) for (MutableParameterDef parameterDef : methodDef.getParametersMutable()) {
                     entryConsumer.accept(parameterDef);
@@ -47,4 +80,77 @@ public final class TinyTreeEntryIterator {
             }
         }
     }
+    
+    private static class WalkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 256;
+        private final MutableClassDef[] classes;
+        private final int start;
+        private final int end;
+        private final ClassWalker walker;
+        
+        private WalkTask(MutableClassDef[] classes, int start, int end, ClassWalker walker) {
+            this.classes = classes;
+            this.start = start;
+            this.end = end;
+            this.walker = walker;
+        }
+        
+        @Override
+        protected void compute() {
+            if (end - start <= THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    walker.accept(classes[i]);
+                }
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new WalkTask(classes, start, middle, walker), new WalkTask(classes, middle, end, walker));
+            }
+        }
+    }
+    
+    public static void accept(TinyTree tree, MappingsVisitor visitor) {
+        TinyMetadata metadata = tree.getMetadata();
+        String primaryNamespace = metadata.getNamespaces().get(0);
+        visitor.visitHeader(metadata);
+        for (ClassDef def : tree.getClasses()) {
+            if (visitor.visitClass(MappedImpl.buildNames(metadata, def))) {
+                acceptComment(def, visitor);
+                for (MethodDef methodDef : def.getMethods()) {
+                    if (visitor.visitMethod(methodDef.getDescriptor(primaryNamespace), MappedImpl.buildNames(metadata, methodDef))) {
+                        acceptComment(methodDef, visitor);
+                        for (ParameterDef parameterDef : methodDef.getParameters()) {
+                            if (visitor.visitParameter(parameterDef.getLocalVariableIndex(), MappedImpl.buildNames(metadata, parameterDef))) {
+                                acceptComment(parameterDef, visitor);
+                            }
+                            visitor.visitEntryEnd(MappingsEntryType.PARAMETER);
+                        }
+                        for (LocalVariableDef localVariableDef : methodDef.getLocalVariables()) {
+                            if (visitor.visitLocalVariable(localVariableDef.getLocalVariableIndex(), localVariableDef.getLocalVariableStartOffset(),
+                                    localVariableDef.getLocalVariableTableIndex(), MappedImpl.buildNames(metadata, localVariableDef))) {
+                                acceptComment(localVariableDef, visitor);
+                            }
+                            visitor.visitEntryEnd(MappingsEntryType.LOCAL_VARIABLE);
+                        }
+                    }
+                    visitor.visitEntryEnd(MappingsEntryType.METHOD);
+                }
+                for (FieldDef fieldDef : def.getFields()) {
+                    if (visitor.visitField(fieldDef.getDescriptor(primaryNamespace), MappedImpl.buildNames(metadata, fieldDef))) {
+                        acceptComment(fieldDef, visitor);
+                    }
+                    visitor.visitEntryEnd(MappingsEntryType.FIELD);
+                }
+            }
+            visitor.visitEntryEnd(MappingsEntryType.CLASS);
+        }
+        visitor.visitEnd();
+    }
+    
+    private static void acceptComment(Mapped mapped, MappingsVisitor visitor) {
+        String comment = mapped.getComment();
+        if (comment != null) {
+            visitor.visitComment(comment);
+        }
+    }
 }
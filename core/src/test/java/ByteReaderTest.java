@@ -0,0 +1,161 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.api.utils.StringPool;
+import dev.architectury.mappingslayers.impl.mappings.TinyReader;
+import dev.architectury.mappingslayers.impl.tiny.LazyClassDefImpl;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class ByteReaderTest {
+    @Test
+    public void testSameAsReader() throws IOException {
+        for (String path : new String[]{"simple.tiny", "crane.tiny"}) {
+            String content = resource(path);
+            MutableTinyTree expected = TinyReader.load(new BufferedReader(new StringReader(content)));
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).rewind();
+            MutableTinyTree actual = TinyReader.load(buffer, false);
+            Assertions.assertEquals(MappingsUtils.serializeToString(expected), MappingsUtils.serializeToString(actual));
+        }
+    }
+    
+    @Test
+    public void testWindowsLineEndings() throws IOException {
+        String content = resource("simple.tiny");
+        MutableTinyTree expected = TinyReader.load(new BufferedReader(new StringReader(content)));
+        MutableTinyTree actual = TinyReader.load(ByteBuffer.wrap(content.replace("\n", "\r\n").getBytes(StandardCharsets.UTF_8)), false);
+        Assertions.assertEquals(MappingsUtils.serializeToString(expected), MappingsUtils.serializeToString(actual));
+    }
+    
+    @Test
+    public void testParallel() throws IOException {
+        String content = resource("simple.tiny");
+        MutableTinyTree expected = TinyReader.load(new BufferedReader(new StringReader(content)));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MutableTinyTree actual = TinyReader.load(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), MappingsLoadOptions.defaults().withPool(pool));
+            Assertions.assertEquals(MappingsUtils.serializeToString(expected), MappingsUtils.serializeToString(actual));
+            Assertions.assertEquals(expected.getDefaultNamespaceClassMap().keySet(), actual.getDefaultNamespaceClassMap().keySet());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testStringPool() throws IOException {
+        String content = resource("simple.tiny");
+        StringPool pool = new StringPool();
+        MappingsLoadOptions options = MappingsLoadOptions.defaults().withStringPool(pool);
+        MutableTinyTree fromBytes = TinyReader.load(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), options);
+        MutableTinyTree fromReader = TinyReader.load(new BufferedReader(new StringReader(content)), options);
+        MutableClassDef first = fromBytes.getClassesMutable().get(0);
+        MutableClassDef second = fromReader.getClassesMutable().get(0);
+        Assertions.assertSame(first.getName(2), second.getName(2));
+        Assertions.assertSame(first.getMethodsMutable().get(0).getDescriptor(0), second.getMethodsMutable().get(0).getDescriptor(0));
+        Assertions.assertSame(pool.intern(new String("()V")), pool.intern(ByteBuffer.wrap("()V".getBytes(StandardCharsets.UTF_8)), 0, 3));
+    }
+    
+    @Test
+    public void testNamespaces() throws IOException {
+        String content = resource("simple.tiny");
+        MutableTinyTree full = MappingsUtils.deserializeFromString(content);
+        MappingsLoadOptions options = MappingsLoadOptions.defaults().withNamespaces("intermediary", "named");
+        MutableTinyTree fromBytes = TinyReader.load(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), options);
+        MutableTinyTree fromReader = TinyReader.load(new BufferedReader(new StringReader(content)), options);
+        Assertions.assertEquals(Arrays.asList("intermediary", "named"), fromBytes.getMetadata().getNamespaces());
+        Assertions.assertEquals(MappingsUtils.serializeToString(fromBytes), MappingsUtils.serializeToString(fromReader));
+        Assertions.assertEquals(full.getClassesMutable().size(), fromBytes.getClassesMutable().size());
+        for (MutableClassDef classDef : full.getClassesMutable()) {
+            MutableClassDef projected = fromBytes.getDefaultNamespaceClassMapMutable().get(classDef.getName("intermediary"));
+            Assertions.assertEquals(classDef.getName("named"), projected.getName("named"));
+            for (MutableMethodDef method : classDef.getMethodsMutable()) {
+                MutableMethodDef projectedMethod = projected.getOrCreateMethod(method.getName("intermediary"), method.getDescriptor("intermediary"));
+                Assertions.assertEquals(method.getName("named"), projectedMethod.getName("named"));
+            }
+            // no method was created by a descriptor mismatch
+            Assertions.assertEquals(classDef.getMethodsMutable().size(), projected.getMethodsMutable().size());
+        }
+    }
+    
+    @Test
+    public void testProfile() throws IOException {
+        String content = resource("simple.tiny");
+        MutableTinyTree full = MappingsUtils.deserializeFromString(content);
+        MappingsLoadOptions options = MappingsLoadOptions.defaults()
+                .withNamespaces("named", "intermediary")
+                .withPackage("com/mojang/math")
+                .withTypes(MappingsEntryType.CLASS, MappingsEntryType.METHOD)
+                .withComments(false);
+        MutableTinyTree fromBytes = TinyReader.load(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), options);
+        MutableTinyTree fromReader = TinyReader.load(new BufferedReader(new StringReader(content)), options);
+        Assertions.assertEquals(MappingsUtils.serializeToString(fromBytes), MappingsUtils.serializeToString(fromReader));
+        long expected = full.getClassesMutable().stream().filter(classDef -> classDef.getName("named").startsWith("com/mojang/math/")).count();
+        Assertions.assertTrue(expected > 0);
+        Assertions.assertEquals(expected, fromBytes.getClassesMutable().size());
+        for (MutableClassDef classDef : fromBytes.getClassesMutable()) {
+            Assertions.assertTrue(classDef.getFieldsMutable().isEmpty());
+            for (MutableMethodDef method : classDef.getMethodsMutable()) {
+                Assertions.assertTrue(method.getParametersMutable().isEmpty());
+            }
+        }
+        Assertions.assertTrue(fromBytes.getClassesMutable().stream().anyMatch(classDef -> !classDef.getMethodsMutable().isEmpty()));
+    }
+    
+    @Test
+    public void testLazy() {
+        String content = resource("simple.tiny");
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).rewind();
+        MutableTinyTree lazy = TinyReader.load(buffer, MappingsLoadOptions.defaults().withLazy(true));
+        MutableClassDef first = lazy.getClassesMutable().get(0);
+        Assertions.assertFalse(((LazyClassDefImpl) first).isDecoded());
+        Assertions.assertFalse(first.getMethodsMutable().isEmpty());
+        Assertions.assertTrue(((LazyClassDefImpl) first).isDecoded());
+        Assertions.assertFalse(((LazyClassDefImpl) lazy.getClassesMutable().get(1)).isDecoded());
+        Assertions.assertEquals(MappingsUtils.serializeToString(MappingsUtils.deserializeFromString(content)), MappingsUtils.serializeToString(lazy));
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.impl.columnar.ColumnarTree;
+import dev.architectury.mappingslayers.impl.columnar.IntArray;
+import dev.architectury.mappingslayers.impl.columnar.OffHeapStorage;
+import dev.architectury.mappingslayers.impl.columnar.RecordStore;
+import dev.architectury.mappingslayers.impl.mappings.TinyReader;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ColumnarTest {
+    @Test
+    public void testLoad() {
+        String content = resource("crane.tiny");
+        MutableTinyTree expected = MappingsUtils.deserializeFromString(content);
+        MutableTinyTree columnar = TinyReader.load(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)),
+                MappingsLoadOptions.defaults().withColumnar(true));
+        Assertions.assertTrue(columnar instanceof ColumnarTree);
+        Assertions.assertEquals(MappingsUtils.serializeToString(expected), MappingsUtils.serializeToString(columnar));
+        Assertions.assertEquals(MappingsUtils.serializeToString(expected), MappingsUtils.serializeToString(MappingsUtils.copyAsColumnar(expected)));
+    }
+    
+    @Test
+    public void testOffHeap() throws IOException {
+        String content = resource("crane.tiny");
+        String expected = MappingsUtils.serializeToString(MappingsUtils.deserializeFromString(content));
+        Path directory = Files.createTempDirectory("mappings");
+        for (MappingsLoadOptions options : new MappingsLoadOptions[]{MappingsLoadOptions.defaults().withOffHeap(true), MappingsLoadOptions.defaults().withOffHeap(directory)}) {
+            MutableTinyTree tree = TinyReader.load(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), options);
+            Assertions.assertEquals(expected, MappingsUtils.serializeToString(tree));
+            MutableClassDef classDef = tree.getOrCreateClass("net/minecraft/unknown");
+            classDef.setComment("Unknown class");
+            Assertions.assertEquals("Unknown class", tree.getDefaultNamespaceClassMapMutable().get("net/minecraft/unknown").getComment());
+            ((Closeable) tree).close();
+        }
+        try (ColumnarTree tree = (ColumnarTree) MappingsUtils.createOffHeap(MappingsUtils.deserializeFromString(content).getMetadata(), null)) {
+            Assertions.assertTrue(tree.getClassesMutable().isEmpty());
+        }
+        Assertions.assertEquals(0, Files.list(directory).count());
+        Files.delete(directory);
+    }
+    
+    @Test
+    public void testOffHeapSegments() throws IOException {
+        try (OffHeapStorage storage = new OffHeapStorage()) {
+            // small stores do not take a full segment each
+            IntArray[] arrays = new IntArray[4096];
+            for (int i = 0; i < arrays.length; i++) {
+                arrays[i] = storage.createInts(64);
+                arrays[i].set(63, i);
+            }
+            for (int i = 0; i < arrays.length; i++) {
+                Assertions.assertEquals(i, arrays[i].get(63));
+            }
+            // a growing store keeps its records while its first segment grows and more segments are added
+            RecordStore records = storage.createRecords(4);
+            for (int i = 0; i < 100000; i++) {
+                records.set(records.allocate(), 3, i);
+            }
+            for (int i = 0; i < 100000; i++) {
+                Assertions.assertEquals(i, records.get(i, 3));
+            }
+        }
+    }
+    
+    @Test
+    public void testModify() {
+        MutableTinyTree tree = MappingsUtils.copyAsColumnar(MappingsUtils.deserializeFromString(resource("simple.tiny")));
+        MutableClassDef classDef = tree.getOrCreateClass("a");
+        Assertions.assertEquals(classDef, tree.getDefaultNamespaceClassMapMutable().get("a"));
+        MutableMethodDef method = classDef.getOrCreateMethod("a", "()V");
+        Assertions.assertEquals(method, classDef.getOrCreateMethod("a", "()V"));
+        method.setName(0, "renamed");
+        Assertions.assertEquals(method, classDef.getOrCreateMethod("renamed", "()V"));
+        int size = classDef.getMethodsMutable().size();
+        classDef.getMethodsMutable().removeIf(method::equals);
+        Assertions.assertEquals(size - 1, classDef.getMethodsMutable().size());
+        Assertions.assertFalse(classDef.getMethodsMutable().contains(method));
+        tree.getClassesMutable().removeIf(def -> !def.getName(0).equals("a"));
+        Assertions.assertEquals(1, tree.getClassesMutable().size());
+        Assertions.assertEquals(1, tree.getDefaultNamespaceClassMapMutable().size());
+        Assertions.assertNull(tree.getDefaultNamespaceClassMapMutable().get("b"));
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
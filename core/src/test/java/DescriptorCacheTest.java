@@ -0,0 +1,90 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DescriptorCacheTest {
+    @Test
+    public void testDescriptorCache() {
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        for (MutableTinyTree target : new MutableTinyTree[]{tree, MappingsUtils.copyAsColumnar(tree)}) {
+            MutableClassDef classDef = target.getOrCreateClass("a");
+            MutableMethodDef method = classDef.getOrCreateMethod("a", "(La;)V");
+            String descriptor = method.getDescriptor(2);
+            Assertions.assertEquals("(Lcom/mojang/math/Matrix3f;)V", descriptor);
+            Assertions.assertSame(descriptor, method.getDescriptor(2));
+            classDef.setName(2, "com/mojang/math/Renamed");
+            Assertions.assertEquals("(Lcom/mojang/math/Renamed;)V", method.getDescriptor(2));
+            method.setPrimaryDescriptor("(La;I)V");
+            Assertions.assertEquals("(Lcom/mojang/math/Renamed;I)V", method.getDescriptor(2));
+        }
+    }
+    
+    @Test
+    public void testPrimaryRename() {
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        MutableClassDef classDef = tree.getOrCreateClass("a");
+        MutableMethodDef method = classDef.getOrCreateMethod("a", "(La;)V");
+        Assertions.assertEquals("(Lcom/mojang/math/Matrix3f;)V", method.getDescriptor(2));
+        classDef.setName(0, "z");
+        Assertions.assertEquals("(Lz;)V", method.getDescriptor(0));
+        Assertions.assertEquals("(Lcom/mojang/math/Matrix3f;)V", method.getDescriptor(2));
+        Assertions.assertSame(classDef, tree.getDefaultNamespaceClassMapMutable().get("z"));
+        Assertions.assertNull(tree.getDefaultNamespaceClassMapMutable().get("a"));
+        Assertions.assertSame(method, classDef.getOrCreateMethod("a", "(Lz;)V"));
+    }
+    
+    @Test
+    public void testParallelDescriptors() {
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        List<MutableMethodDef> methods = tree.getClassesMutable().stream().flatMap(classDef -> classDef.getMethodsMutable().stream())
+                .collect(Collectors.toList());
+        List<String> expected = methods.stream().map(method -> MappingsUtils.remapDescriptor(tree, method.getDescriptor(0), 0, 2))
+                .collect(Collectors.toList());
+        for (int round = 0; round < 8; round++) {
+            // reading the intermediary descriptors as well makes the threads replace each other's caches
+            List<String> descriptors = methods.parallelStream().peek(method -> method.getDescriptor(1))
+                    .map(method -> method.getDescriptor(2)).collect(Collectors.toList());
+            Assertions.assertEquals(expected, descriptors);
+            tree.getClassesMutable().get(0).setName(2, "com/mojang/math/Round" + round);
+            expected = methods.stream().map(method -> MappingsUtils.remapDescriptor(tree, method.getDescriptor(0), 0, 2))
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.utils.DescriptorTemplate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DescriptorTemplateTest {
+    @Test
+    public void testDescriptorTemplate() {
+        DescriptorTemplate template = DescriptorTemplate.parse("(La;[[Lb/c;IJ)Ld;");
+        Assertions.assertEquals(3, template.getClassCount());
+        Assertions.assertEquals("b/c", template.getClassName(1));
+        Assertions.assertEquals("(La;[[Lb/c;IJ)Ld;", template.remap(name -> name));
+        Assertions.assertEquals("(Lx/a;[[Lx/b/c;IJ)Lx/d;", template.remap(name -> "x/" + name));
+        Assertions.assertEquals("(IJ)V", DescriptorTemplate.parse("(IJ)V").format(i -> null));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import dev.architectury.mappingslayers.api.Mappings;
+import dev.architectury.mappingslayers.api.MappingsReaders;
+import dev.architectury.mappingslayers.api.utils.FingerprintIndex;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class FingerprintIndexTest {
+    @Test
+    public void testFingerprintIndex() throws IOException {
+        Path folder = Files.createTempDirectory("fingerprints");
+        Path file = folder.resolve("mappings.tiny");
+        try {
+            Files.write(file, resource("simple.tiny").getBytes(StandardCharsets.UTF_8));
+            FingerprintIndex index = FingerprintIndex.open(folder.resolve("fingerprints.bin"));
+            String uuid = MappingsReaders.readDetection(file, index, FingerprintIndex.Hash.SHA512).uuid();
+            Assertions.assertEquals(MappingsReaders.readDetection(file).uuid(), uuid);
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            byte[] changed = Files.readAllBytes(file);
+            changed[changed.length - 2] = 'x';
+            Files.write(file, changed);
+            Files.setLastModifiedTime(file, lastModified);
+            // the file looks unchanged to the index
+            Assertions.assertEquals(uuid, MappingsReaders.readDetection(file, index, FingerprintIndex.Hash.SHA512).uuid());
+            Assertions.assertTrue(MappingsReaders.readDetection(file, index, FingerprintIndex.Hash.MURMUR3).uuid().startsWith("murmur3:"));
+            Assertions.assertTrue(Files.exists(folder.resolve("fingerprints.bin")));
+        } finally {
+            MoreFiles.deleteRecursively(folder);
+        }
+    }
+    
+    @Test
+    public void testHashWhileParsing() throws IOException {
+        byte[] bytes = resource("simple.tiny").getBytes(StandardCharsets.UTF_8);
+        String expected = MappingsReaders.readTiny(resource("simple.tiny"), "").serializeToTiny();
+        Mappings mappings = MappingsReaders.readTiny(new ByteArrayInputStream(bytes));
+        Assertions.assertEquals(Hashing.sha512().hashBytes(bytes).toString(), mappings.uuid());
+        Assertions.assertEquals(expected, mappings.serializeToTiny());
+        Path folder = Files.createTempDirectory("fingerprints");
+        Path file = folder.resolve("mappings.tiny");
+        try {
+            Files.write(file, bytes);
+            // a cache miss is parsed while hashing
+            Mappings detected = MappingsReaders.readDetection(file, FingerprintIndex.open(folder.resolve("fingerprints.bin")), FingerprintIndex.Hash.SHA512);
+            Assertions.assertEquals(mappings.uuid(), detected.uuid());
+            Assertions.assertEquals(expected, detected.serializeToTiny());
+            Assertions.assertEquals(expected, MappingsReaders.readDetection(file, FingerprintIndex.open(folder.resolve("fingerprints.bin")), FingerprintIndex.Hash.SHA512).serializeToTiny());
+        } finally {
+            MoreFiles.deleteRecursively(folder);
+        }
+    }
+    
+    @Test
+    public void testSharedIndex() throws IOException {
+        Path folder = Files.createTempDirectory("fingerprints");
+        try {
+            Path first = Files.write(folder.resolve("first.tiny"), new byte[] {1});
+            Path second = Files.write(folder.resolve("second.tiny"), new byte[] {2});
+            // the link gives a second index on the same file, like another process would have
+            Path link = Files.createSymbolicLink(folder.resolve("link"), folder);
+            FingerprintIndex index = FingerprintIndex.open(folder.resolve("fingerprints.bin"));
+            FingerprintIndex other = FingerprintIndex.open(link.resolve("fingerprints.bin"));
+            Assertions.assertNotSame(index, other);
+            String firstDigest = index.fingerprint(first, FingerprintIndex.Hash.SHA512, function -> function.hashInt(1));
+            String secondDigest = other.fingerprint(second, FingerprintIndex.Hash.SHA512, function -> function.hashInt(2));
+            FingerprintIndex.Digester fail = function -> {
+                throw new AssertionError("The entry was written by the other index");
+            };
+            Assertions.assertEquals(secondDigest, index.fingerprint(second, FingerprintIndex.Hash.SHA512, fail));
+            Assertions.assertEquals(firstDigest, other.fingerprint(first, FingerprintIndex.Hash.SHA512, fail));
+        } finally {
+            MoreFiles.deleteRecursively(folder);
+        }
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.Mappings;
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.MappingsReaders;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.MapTransformation;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.impl.mappings.FusedTransformation;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class FusedTransformationTest {
+    @Test
+    public void testFusedTransformations() {
+        MappingsTransformation clear = new MappingsTransformation() {
+            @Override
+            public String uuid() {
+                return "clear";
+            }
+            
+            @Override
+            public void handle(MutableTinyTree tree) {
+                tree.getClassesMutable().removeIf(classDef -> classDef.getName(0).length() > 2);
+            }
+        };
+        List<MappingsTransformation> transformations = Arrays.asList(
+                new MapTransformation(MappingsEntryType.CLASS, "net/minecraft/class_4581", "Matrix"),
+                new MapTransformation(MappingsEntryType.METHOD, "method_22847", "flip"),
+                new MapTransformation(MappingsEntryType.CLASS, "net/minecraft/class_4581", "Matrix3"),
+                clear,
+                new MapTransformation(MappingsEntryType.METHOD, "method_22847", "transpose")
+        );
+        List<MappingsTransformation> planned = FusedTransformation.plan(transformations);
+        Assertions.assertEquals(3, planned.size());
+        Assertions.assertTrue(planned.get(0) instanceof FusedTransformation);
+        Assertions.assertSame(clear, planned.get(1));
+        
+        MutableTinyTree expected = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        for (MappingsTransformation transformation : transformations) {
+            expected = transformation.modify(expected);
+        }
+        Mappings fused = MappingsReaders.readTiny(resource("simple.tiny"), "").withTransformations(transformations);
+        Assertions.assertEquals(MappingsUtils.serializeToString(expected), fused.serializeToTiny());
+        Assertions.assertTrue(fused.serializeToTiny().contains("\ta\tnet/minecraft/class_4581\tMatrix3\n"));
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
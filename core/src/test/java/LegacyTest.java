@@ -0,0 +1,60 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.impl.mappings.TinyReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+public class LegacyTest {
+    private static final String MAPPINGS = "v1\tofficial\tintermediary\tnamed\n" +
+            "FIELD\ta\tLb;\tc\tfield_1\tfoo\n" +
+            "CLASS\ta\tnet/minecraft/class_1\tcom/example/Foo\n" +
+            "METHOD\ta\t(Lb;)V\td\tmethod_1\tbar\n" +
+            "CLASS\tb\tnet/minecraft/class_2\tcom/example/Bar\n";
+    
+    @Test
+    public void testSinglePass() throws IOException {
+        MutableTinyTree tree = TinyReader.loadWithDetection(new BufferedReader(new StringReader(MAPPINGS)), MappingsLoadOptions.defaults());
+        Assertions.assertEquals(2, tree.getClassesMutable().size());
+        MutableClassDef classDef = tree.getDefaultNamespaceClassMapMutable().get("a");
+        Assertions.assertEquals("com/example/Foo", classDef.getName("named"));
+        Assertions.assertEquals("foo", classDef.getFieldsMutable().get(0).getName("named"));
+        Assertions.assertEquals("field_1", classDef.getFieldsMutable().get(0).getName("intermediary"));
+        Assertions.assertEquals("bar", classDef.getMethodsMutable().get(0).getName("named"));
+    }
+    
+    @Test
+    public void testProjection() throws IOException {
+        MappingsLoadOptions options = MappingsLoadOptions.defaults().withNamespaces("intermediary", "named").withPackage("net/minecraft");
+        MutableTinyTree tree = TinyReader.loadWithDetection(new BufferedReader(new StringReader(MAPPINGS)), options);
+        MutableClassDef classDef = tree.getDefaultNamespaceClassMapMutable().get("net/minecraft/class_1");
+        MutableMethodDef method = classDef.getMethodsMutable().get(0);
+        Assertions.assertEquals("method_1", method.getName(0));
+        Assertions.assertEquals("(Lnet/minecraft/class_2;)V", method.getDescriptor(0));
+        Assertions.assertEquals("Lnet/minecraft/class_2;", classDef.getFieldsMutable().get(0).getDescriptor(0));
+    }
+}
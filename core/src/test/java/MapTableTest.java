@@ -0,0 +1,76 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.MappingsReaders;
+import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.MapTableTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.MapTransformation;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MapTableTest {
+    @Test
+    public void testMapTable() throws IOException {
+        MapTableTransformation table = new MapTableTransformation();
+        table.read(new StringReader("# type,intermediary,mapped\nclass,net/minecraft/class_4581,Matrix\nm,method_22847,flip\n\nclass,net/minecraft/class_4581,\"Matrix3\"\n"), ',');
+        Assertions.assertEquals(2, table.size());
+        List<MappingsTransformation> transformations = Arrays.asList(
+                new MapTransformation(MappingsEntryType.CLASS, "net/minecraft/class_4581", "Matrix"),
+                new MapTransformation(MappingsEntryType.METHOD, "method_22847", "flip"),
+                new MapTransformation(MappingsEntryType.CLASS, "net/minecraft/class_4581", "Matrix3")
+        );
+        String expected = MappingsReaders.readTiny(resource("simple.tiny"), "").withTransformations(transformations).serializeToTiny();
+        String mapped = MappingsReaders.readTiny(resource("simple.tiny"), "").withTransformations(Collections.singletonList(table)).serializeToTiny();
+        Assertions.assertEquals(expected, mapped);
+        Assertions.assertTrue(mapped.contains("\ta\tnet/minecraft/class_4581\tMatrix3\n"));
+        Assertions.assertTrue(mapped.contains("\tmethod_22847\tflip\n"));
+        Assertions.assertThrows(IOException.class, () -> table.read(new StringReader("local\tfield_1\tname\n"), '\t'));
+    }
+    
+    @Test
+    public void testQuotedColumns() throws IOException {
+        MapTableTransformation table = new MapTableTransformation();
+        table.read(new StringReader("class,net/minecraft/class_4581,\"Matrix,3\"\n\"m\" , method_22847 , \"say \"\"flip\"\"\"\nf,field_1,\"first\nsecond\"\n"), ',');
+        Assertions.assertEquals(3, table.size());
+        String mapped = MappingsReaders.readTiny(resource("simple.tiny"), "").withTransformations(Collections.singletonList(table)).serializeToTiny();
+        Assertions.assertTrue(mapped.contains("\ta\tnet/minecraft/class_4581\tMatrix,3\n"));
+        Assertions.assertTrue(mapped.contains("\tmethod_22847\tsay \"flip\"\n"));
+        Assertions.assertTrue(table.uuid().contains("field_1|first\nsecond"));
+        Assertions.assertThrows(IOException.class, () -> table.read(new StringReader("class,net/minecraft/class_4581,\"Matrix\n"), ','));
+        Assertions.assertThrows(IOException.class, () -> table.read(new StringReader("class,\"net/minecraft/class_4581\"x,Matrix\n"), ','));
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.api.utils.NamespaceRemapper;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NamespaceRemapperTest {
+    @Test
+    public void testNamespaceRemapper() {
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        NamespaceRemapper toNamed = NamespaceRemapper.of(tree, 0, 2);
+        NamespaceRemapper toOfficial = NamespaceRemapper.of(tree, 2, 0);
+        List<String> descriptors = new ArrayList<>();
+        for (MutableClassDef classDef : tree.getClassesMutable()) {
+            for (MutableMethodDef method : classDef.getMethodsMutable()) {
+                String descriptor = method.getDescriptor(0);
+                Assertions.assertEquals(MappingsUtils.remapDescriptor(tree, descriptor, 0, 2), toNamed.mapDescriptor(descriptor));
+                descriptors.add(method.getDescriptor(2));
+            }
+        }
+        List<String> mapped = toOfficial.mapDescriptors(descriptors);
+        for (int i = 0; i < descriptors.size(); i++) {
+            Assertions.assertEquals(MappingsUtils.remapDescriptor(tree, descriptors.get(i), 2, 0), mapped.get(i));
+        }
+        String unchanged = "(ILjava/lang/String;)V";
+        Assertions.assertSame(unchanged, toNamed.mapDescriptor(unchanged));
+        Assertions.assertTrue(NamespaceRemapper.of(tree, 2, 2).isIdentity());
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
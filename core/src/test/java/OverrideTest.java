@@ -0,0 +1,69 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.Mappings;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.transform.builtin.OverrideTransformation;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.impl.mappings.TinyTreeMappings;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+
+public class OverrideTest {
+    @Test
+    public void testOverride() {
+        MutableTinyTree override = MappingsUtils.deserializeFromString("tiny\t2\t0\tofficial\tintermediary\tnamed\n"
+                + "c\ta\tnet/minecraft/class_4581\tcom/mojang/math/Matrix\n"
+                + "\tm\t()V\ta\tmethod_22847\tflip\n"
+                + "\tm\t()V\tz\tmethod_99999\tadded\n"
+                + "\tm\t(F)V\ta\tmethod_23729\t\n"
+                + "\t\tp\t1\t\t\tfactor\n"
+                + "\tf\tF\ta\tfield_21633\t\n");
+        Mappings mappings = new TinyTreeMappings(override, "override");
+        
+        MutableTinyTree all = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        new OverrideTransformation(mappings, (entry, replaced) -> true, "all").handle(all);
+        String serialized = MappingsUtils.serializeToString(all);
+        Assertions.assertTrue(serialized.contains("\tnet/minecraft/class_4581\tcom/mojang/math/Matrix\n"));
+        Assertions.assertTrue(serialized.contains("\tmethod_22847\tflip\n"));
+        Assertions.assertTrue(serialized.contains("\tmethod_99999\tadded\n"));
+        Assertions.assertTrue(serialized.contains("\tfield_21633\tm00\n"));
+        Assertions.assertTrue(serialized.contains("\tmethod_23729\tmul\n\t\tp\t1\t\t\tfactor\n"));
+        
+        MutableTinyTree missing = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        new OverrideTransformation(mappings, (entry, replaced) -> entry == null, "missing").handle(missing);
+        serialized = MappingsUtils.serializeToString(missing);
+        Assertions.assertTrue(serialized.contains("\tnet/minecraft/class_4581\tcom/mojang/math/Matrix3f\n"));
+        Assertions.assertTrue(serialized.contains("\tmethod_22847\ttranspose\n"));
+        Assertions.assertTrue(serialized.contains("\tmethod_99999\tadded\n"));
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
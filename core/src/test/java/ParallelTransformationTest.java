@@ -0,0 +1,93 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.Mappings;
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableMapped;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.SimpleMappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.MapTableTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.RegexReplaceTransformation;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.impl.mappings.FusedTransformation;
+import dev.architectury.mappingslayers.impl.mappings.TinyTreeMappings;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelTransformationTest {
+    @Test
+    public void testParallelTransformations() {
+        MapTableTransformation table = new MapTableTransformation();
+        table.put(MappingsEntryType.CLASS, "net/minecraft/class_4581", "Matrix");
+        RegexReplaceTransformation replace = new RegexReplaceTransformation();
+        replace.add(MappingsUtils.getTypeId(MappingsEntryType.METHOD, MappingsEntryType.FIELD), "(.+)", "$1_");
+        SimpleMappingsTransformation unsafe = new SimpleMappingsTransformation() {
+            @Override
+            public String uuid() {
+                return "unsafe";
+            }
+            
+            @Override
+            public boolean handleType(MappingsEntryType type) {
+                return type == MappingsEntryType.CLASS;
+            }
+            
+            @Override
+            public void handle(MutableMapped entry) {
+                entry.setComment(entry.getMapped());
+            }
+        };
+        List<MappingsTransformation> transformations = Arrays.asList(table, replace, unsafe);
+        List<MappingsTransformation> planned = FusedTransformation.plan(transformations);
+        Assertions.assertEquals(2, planned.size());
+        Assertions.assertTrue(planned.get(0).isParallelSafe());
+        Assertions.assertSame(unsafe, planned.get(1));
+        
+        MutableTinyTree expected = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        for (MappingsTransformation transformation : transformations) {
+            expected = transformation.modify(expected);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Mappings parallel = TinyTreeMappings.owning(MappingsUtils.deserializeFromString(resource("simple.tiny")), "")
+                    .withPool(pool)
+                    .withTransformations(transformations);
+            Assertions.assertEquals(MappingsUtils.serializeToString(expected), parallel.serializeToTiny());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableParameterDef;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import net.fabricmc.mapping.tree.ParameterDef;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+
+public class ParameterIndexTest {
+    @Test
+    public void testParameterOrder() {
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        MutableMethodDef method = tree.getOrCreateClass("a").getOrCreateMethod("a", "(IIII)V");
+        for (int lvIndex : new int[]{3, 1, 4, 2}) {
+            method.getOrCreateParameter(lvIndex, "p" + lvIndex);
+        }
+        Assertions.assertSame(method.getParametersMutable().get(1), method.getOrCreateParameter(2, "p2"));
+        int[] order = method.getParametersMutable().stream().mapToInt(ParameterDef::getLocalVariableIndex).toArray();
+        Assertions.assertArrayEquals(new int[]{1, 2, 3, 4}, order);
+    }
+    
+    @Test
+    public void testParameterIndex() {
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        MutableMethodDef method = tree.getOrCreateClass("a").getOrCreateMethod("a", "(IIII)V");
+        MutableParameterDef first = method.getOrCreateParameter(1, "first");
+        Assertions.assertSame(first, method.getOrCreateParameter(1, "other"));
+        // a lookup does not rename the parameter
+        Assertions.assertEquals("first", first.getName(0));
+        MutableParameterDef third = method.getOrCreateParameter(3, "third");
+        Assertions.assertSame(third, method.findParameter(3));
+        third.setLocalVariableIndex(4);
+        Assertions.assertNull(method.findParameter(3));
+        Assertions.assertSame(third, method.findParameter(4));
+        method.getParametersMutable().subList(0, 1).clear();
+        Assertions.assertNull(method.findParameter(1));
+        Assertions.assertSame(third, method.findParameter(4));
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
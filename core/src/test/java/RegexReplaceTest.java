@@ -0,0 +1,78 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.transform.builtin.RegexReplaceTransformation;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+
+public class RegexReplaceTest {
+    @Test
+    public void testRegexReplace() {
+        String[][] rules = {{"Matrix(.*)", "Mat$1"}, {"(.*)3f", "$1Three"}, {"get[A-Z]\\w*", "fetch"}, {"^to(.+)s?$", "as$1"}, {"a\\.b|.*Vector.*", "vec"}, {"transpose", "flip"}, {"^mul$", "multiply"}};
+        RegexReplaceTransformation transformation = new RegexReplaceTransformation();
+        for (String[] rule : rules) {
+            transformation.add(MappingsUtils.getTypeId(MappingsEntryType.values()), rule[0], rule[1]);
+        }
+        MutableTinyTree expected = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        MappingsUtils.walk(expected, entry -> {
+            for (String[] rule : rules) {
+                if (entry.isMapped() && entry.getMapped().matches(rule[0])) {
+                    entry.setMapped(entry.getMapped().replaceAll(rule[0], rule[1]));
+                }
+            }
+        });
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        transformation.handle(tree);
+        Assertions.assertEquals(MappingsUtils.serializeToString(expected), MappingsUtils.serializeToString(tree));
+        Assertions.assertTrue(MappingsUtils.serializeToString(tree).contains("\tcom/mojang/math/MatrixThree\n"));
+        Assertions.assertTrue(MappingsUtils.serializeToString(tree).contains("\tmethod_22847\tflip\n"));
+        Assertions.assertTrue(MappingsUtils.serializeToString(tree).contains("\tmethod_23729\tmultiply\n"));
+    }
+    
+    @Test
+    public void testPartialMatches() {
+        // regexes matching fully also replace their empty and shorter matches, as String.replaceAll does
+        String[][] rules = {{"mu|mul", "x"}, {"t\\w*", "<$0>"}};
+        RegexReplaceTransformation transformation = new RegexReplaceTransformation();
+        for (String[] rule : rules) {
+            transformation.add(MappingsUtils.getTypeId(MappingsEntryType.METHOD), rule[0], rule[1]);
+        }
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        transformation.handle(tree);
+        String serialized = MappingsUtils.serializeToString(tree);
+        Assertions.assertTrue(serialized.contains("\tmethod_23729\txl\n"));
+        Assertions.assertTrue(serialized.contains("\tmethod_22847\t" + "transpose".replaceAll(rules[1][0], rules[1][1]) + "\n"));
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.Mappings;
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.MappingsReaders;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.MapTransformation;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class StreamingTest {
+    @Test
+    public void testStreaming() throws IOException {
+        String content = resource("simple.tiny");
+        Path file = Files.createTempFile("mappings", ".tiny");
+        try {
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            List<MappingsTransformation> transformations = Arrays.asList(
+                    new MapTransformation(MappingsEntryType.CLASS, "net/minecraft/class_4581", "Matrix"),
+                    new MapTransformation(MappingsEntryType.METHOD, "method_22847", "flip")
+            );
+            Mappings streaming = MappingsReaders.readDetection(file).withTransformations(transformations);
+            Mappings tree = MappingsReaders.readTiny(content, "").withTransformations(transformations);
+            StringWriter writer = new StringWriter();
+            streaming.serializeToTiny(writer);
+            Assertions.assertEquals(tree.serializeToTiny(), writer.toString());
+            Assertions.assertTrue(writer.toString().contains("\ta\tnet/minecraft/class_4581\tMatrix\n"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testMaterialize() throws IOException {
+        String content = resource("simple.tiny");
+        Path file = Files.createTempFile("mappings", ".tiny");
+        try {
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            MappingsTransformation clear = new MappingsTransformation() {
+                @Override
+                public String uuid() {
+                    return "clear";
+                }
+                
+                @Override
+                public void handle(MutableTinyTree tree) {
+                    tree.getClassesMutable().removeIf(classDef -> !classDef.getName(0).equals("a"));
+                }
+            };
+            Mappings mappings = MappingsReaders.readDetection(file)
+                    .withTransformations(Collections.singletonList(new MapTransformation(MappingsEntryType.CLASS, "net/minecraft/class_4581", "Matrix")))
+                    .withTransformations(Collections.singletonList(clear));
+            String serialized = mappings.serializeToTiny();
+            Assertions.assertTrue(serialized.startsWith("tiny\t2\t0\tofficial\tintermediary\tnamed\nc\ta\tnet/minecraft/class_4581\tMatrix\n"));
+            Assertions.assertEquals(1, serialized.split("\nc\t").length - 1);
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
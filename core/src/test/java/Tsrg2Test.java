@@ -0,0 +1,97 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.MappingsLoadOptions;
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.impl.mappings.TinyReader;
+import dev.architectury.mappingslayers.impl.mappings.TinyTreeBuilder;
+import dev.architectury.mappingslayers.impl.mappings.Tsrg2Reader;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class Tsrg2Test {
+    @Test
+    public void testTsrg2() {
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("simple.tiny"));
+        TinyTreeBuilder builder = new TinyTreeBuilder();
+        String tsrg2 = MappingsUtils.serializeToTsrg2(tree);
+        Assertions.assertTrue(tsrg2.startsWith("tsrg2 official intermediary named\na net/minecraft/class_4581 com/mojang/math/Matrix3f\n\ta ()V method_22847 transpose\n"));
+        MappingsUtils.visitFromTsrg2(tsrg2, builder);
+        Assertions.assertEquals(MappingsUtils.serializeToString(tree), MappingsUtils.serializeToString(builder.getTree()));
+        MutableMethodDef method = builder.getTree().getOrCreateClass("a").getOrCreateMethod("a", "(F)V");
+        Assertions.assertEquals("method_23729", method.getName("intermediary"));
+        Assertions.assertEquals("mul", method.getName("named"));
+    }
+    
+    @Test
+    public void testTsrg2Stream() throws IOException {
+        String tsrg2 = MappingsUtils.serializeToTsrg2(MappingsUtils.deserializeFromString(resource("crane.tiny")));
+        byte[] bytes = tsrg2.getBytes(StandardCharsets.UTF_8);
+        String expected = MappingsUtils.serializeToString(MappingsUtils.deserializeFromTsrg2(tsrg2));
+        MutableTinyTree fromStream = Tsrg2Reader.read(new ByteArrayInputStream(bytes), MappingsLoadOptions.defaults());
+        MutableTinyTree fromBuffer = Tsrg2Reader.read(ByteBuffer.wrap(bytes), MappingsLoadOptions.defaults());
+        Assertions.assertEquals(expected, MappingsUtils.serializeToString(fromStream));
+        Assertions.assertEquals(expected, MappingsUtils.serializeToString(fromBuffer));
+    }
+    
+    @Test
+    public void testTsrg2Options() throws IOException {
+        String tsrg2 = MappingsUtils.serializeToTsrg2(MappingsUtils.deserializeFromString(resource("simple.tiny")));
+        String tiny = MappingsUtils.serializeToString(MappingsUtils.deserializeFromTsrg2(tsrg2));
+        MappingsLoadOptions options = MappingsLoadOptions.defaults()
+                .withTypes(MappingsEntryType.CLASS, MappingsEntryType.METHOD)
+                .withNamespaces("named", "official")
+                .withPackage("com/mojang/math");
+        MutableTinyTree expected = TinyReader.load(new BufferedReader(new StringReader(tiny)), options);
+        MutableTinyTree tree = Tsrg2Reader.read(tsrg2, options);
+        Assertions.assertEquals(MappingsUtils.serializeToString(expected), MappingsUtils.serializeToString(tree));
+        Assertions.assertEquals(Arrays.asList("named", "official"), tree.getMetadata().getNamespaces());
+        Assertions.assertFalse(tree.getClassesMutable().isEmpty());
+        for (MutableClassDef classDef : tree.getClassesMutable()) {
+            Assertions.assertTrue(classDef.getName(0).startsWith("com/mojang/math/"));
+            Assertions.assertTrue(classDef.getFields().isEmpty());
+        }
+        MutableMethodDef method = tree.getOrCreateClass("com/mojang/math/Matrix3f").getOrCreateMethod("load", "(Lcom/mojang/math/Matrix3f;)V");
+        Assertions.assertEquals("a", method.getName("official"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> Tsrg2Reader.read(new ByteArrayInputStream(tsrg2.getBytes(StandardCharsets.UTF_8)), options));
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of architectury.
+ * Copyright (C) 2021 architectury
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+import dev.architectury.mappingslayers.api.MappingsEntryType;
+import dev.architectury.mappingslayers.api.mutable.MutableClassDef;
+import dev.architectury.mappingslayers.api.mutable.MutableMethodDef;
+import dev.architectury.mappingslayers.api.mutable.MutableTinyTree;
+import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import dev.architectury.mappingslayers.api.visitor.MappingsVisitor;
+import dev.architectury.mappingslayers.impl.mappings.TinyTreeBuilder;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+
+public class VisitorTest {
+    @Test
+    public void testCounting() {
+        String content = resource("simple.tiny");
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(content);
+        int[] counts = new int[MappingsEntryType.values().length];
+        MappingsUtils.visitFromString(content, new MappingsVisitor() {
+            @Override
+            public void visitEntryEnd(MappingsEntryType type) {
+                counts[type.ordinal()]++;
+            }
+        });
+        int methods = 0, fields = 0, parameters = 0;
+        for (MutableClassDef classDef : tree.getClassesMutable()) {
+            methods += classDef.getMethodsMutable().size();
+            fields += classDef.getFieldsMutable().size();
+            for (MutableMethodDef methodDef : classDef.getMethodsMutable()) {
+                parameters += methodDef.getParametersMutable().size();
+            }
+        }
+        Assertions.assertEquals(tree.getClassesMutable().size(), counts[MappingsEntryType.CLASS.ordinal()]);
+        Assertions.assertEquals(methods, counts[MappingsEntryType.METHOD.ordinal()]);
+        Assertions.assertEquals(fields, counts[MappingsEntryType.FIELD.ordinal()]);
+        Assertions.assertEquals(parameters, counts[MappingsEntryType.PARAMETER.ordinal()]);
+    }
+    
+    @Test
+    public void testSkipping() {
+        int[] methods = new int[1];
+        MappingsUtils.visitFromString(resource("simple.tiny"), new MappingsVisitor() {
+            @Override
+            public boolean visitClass(String[] names) {
+                return false;
+            }
+            
+            @Override
+            public boolean visitMethod(String descriptor, String[] names) {
+                methods[0]++;
+                return true;
+            }
+        });
+        Assertions.assertEquals(0, methods[0]);
+    }
+    
+    @Test
+    public void testTreeRoundTrip() {
+        MutableTinyTree tree = MappingsUtils.deserializeFromString(resource("crane.tiny"));
+        TinyTreeBuilder builder = new TinyTreeBuilder();
+        MappingsUtils.accept(tree, builder);
+        Assertions.assertEquals(MappingsUtils.serializeToString(tree), MappingsUtils.serializeToString(builder.getTree()));
+        Assertions.assertEquals(tree.getClassesMutable().size(), builder.getTree().getClassesMutable().size());
+        for (MutableClassDef classDef : tree.getClassesMutable()) {
+            MutableClassDef built = builder.getTree().getDefaultNamespaceClassMapMutable().get(classDef.getName(0));
+            Assertions.assertNotSame(classDef, built);
+            Assertions.assertEquals(classDef.getMethodsMutable().size(), built.getMethodsMutable().size());
+            Assertions.assertEquals(classDef.getComment(), built.getComment());
+        }
+    }
+    
+    private String resource(String path) {
+        try (InputStreamReader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(path))) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import dev.architectury.mappingslayers.api.Mappings;
 import dev.architectury.mappingslayers.api.MappingsReaders;
 import dev.architectury.mappingslayers.api.MappingsTransformationBuilder;
 import dev.architectury.mappingslayers.api.MappingsTransformationContext;
+import dev.architectury.mappingslayers.api.utils.FingerprintIndex;
 import dev.architectury.mappingslayers.impl.MappingsTransformationBuilderImpl;
 import groovy.lang.Closure;
 import org.gradle.api.Action;
@@ -35,6 +36,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -47,6 +49,8 @@ public class MappingsLayersExtension implements MappingsTransformationContext {
     private final Project project;
     private final Configuration configuration;
     private final Path cacheFolder;
+    private final FingerprintIndex fingerprints;
+    private FingerprintIndex.Hash fingerprintHash = FingerprintIndex.Hash.SHA512;
     
     public MappingsLayersExtension(Project project) {
         this.project = project;
@@ -57,6 +61,18 @@ public class MappingsLayersExtension implements MappingsTransformationContext {
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
+        this.fingerprints = FingerprintIndex.open(cacheFolder.resolve("fingerprints.bin"));
+    }
+    
+    public FingerprintIndex.Hash getFingerprintHash() {
+        return fingerprintHash;
+    }
+    
+    /**
+     * Sets the hash used to identify input mappings, {@link FingerprintIndex.Hash#MURMUR3} is faster on large inputs.
+     */
+    public void setFingerprintHash(FingerprintIndex.Hash fingerprintHash) {
+        this.fingerprintHash = fingerprintHash;
     }
     
     public Dependency from(Object notation) {
@@ -105,13 +121,15 @@ public class MappingsLayersExtension implements MappingsTransformationContext {
                 if (builder != null) {
                     mappings = mappings.withTransformations(builder.getTransformations());
                 }
-                Map<String, String> env = new HashMap<>();
+                Map<String, Object> env = new HashMap<>();
                 env.put("create", "true");
+                env.put("useTempFile", Boolean.TRUE);
                 URI uri = new URI("jar:" + resolve.toUri());
                 try (FileSystem fs = FileSystems.newFileSystem(uri, env)) {
                     Files.createDirectories(fs.getPath("mappings"));
-                    Files.write(fs.getPath("mappings/mappings.tiny"),
-                            mappings.serializeToTiny().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+                    try (Writer writer = Files.newBufferedWriter(fs.getPath("mappings/mappings.tiny"), StandardCharsets.UTF_8)) {
+                        mappings.serializeToTiny(writer);
+                    }
                 }
             } catch (IOException | URISyntaxException e) {
                 try {
@@ -132,12 +150,12 @@ public class MappingsLayersExtension implements MappingsTransformationContext {
         if (o instanceof Dependency) {
             Set<File> dependencyFiles = project.getConfigurations().detachedConfiguration((Dependency) o).getFiles();
             if (dependencyFiles.size() != 1) throw new AssertionError("Expecting only 1 file!");
-            return MappingsReaders.readDetection(dependencyFiles.iterator().next().toPath());
+            return MappingsReaders.readDetection(dependencyFiles.iterator().next().toPath(), fingerprints, fingerprintHash);
         }
         Dependency dependency = project.getDependencies().add(configuration.getName(), o);
         Set<File> dependencyFiles = configuration.files(dependency);
         if (dependencyFiles.size() != 1) throw new AssertionError("Expecting only 1 file!");
-        return MappingsReaders.readDetection(dependencyFiles.iterator().next().toPath());
+        return MappingsReaders.readDetection(dependencyFiles.iterator().next().toPath(), fingerprints, fingerprintHash);
     }
     
     @Nullable
@@ -21,8 +21,13 @@ package dev.architectury.mappingslayers.api;
 
 import dev.architectury.mappingslayers.api.mutable.MappingsEntry;
 import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.MapTableTransformation;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -60,6 +65,27 @@ public interface MappingsTransformationBuilder {
      */
     void mapField(String intermediary, String mapped);
     
+    /**
+     * Adds / replaces the mappings listed in a TSV or CSV file, with a {@code type, intermediary, mapped} row per mapping.
+     * The type is {@code class}, {@code method} or {@code field}, files ending with {@code .csv} are split on commas
+     * and other files on tabs.
+     *
+     * @param file the file of the mappings
+     */
+    default void mapTable(Path file) {
+        MapTableTransformation table = new MapTableTransformation();
+        try {
+            table.read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read mappings from " + file, e);
+        }
+        add(table);
+    }
+    
+    default void mapTable(File file) {
+        mapTable(file.toPath());
+    }
+    
     default void unmapClass(String intermediary) {
         mapClass(intermediary, "");
     }
@@ -24,20 +24,28 @@ import dev.architectury.mappingslayers.api.mutable.MappingsEntry;
 import dev.architectury.mappingslayers.api.mutable.MutableMapped;
 import dev.architectury.mappingslayers.api.transform.MappingsTransformation;
 import dev.architectury.mappingslayers.api.transform.SimpleMappingsTransformation;
-import dev.architectury.mappingslayers.api.transform.builtin.MapTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.MapTableTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.OverrideTransformation;
+import dev.architectury.mappingslayers.api.transform.builtin.RegexReplaceTransformation;
 import dev.architectury.mappingslayers.api.utils.MappingsUtils;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class MappingsTransformationBuilderImpl implements MappingsTransformationBuilder {
     private final List<MappingsTransformation> transformations = new ArrayList<>();
     private final MappingsTransformationContext context;
     private final long epic;
+    @Nullable
+    private MapTableTransformation mapTable;
+    @Nullable
+    private RegexReplaceTransformation replaceRules;
     
     public MappingsTransformationBuilderImpl(MappingsTransformationContext context) {
         this.context = context;
@@ -57,24 +65,47 @@ public class MappingsTransformationBuilderImpl implements MappingsTransformation
     @Override
     public void mapClass(String intermediary, String mapped) {
         Objects.requireNonNull(mapped, "mapped is null");
-        add(new MapTransformation(MappingsEntryType.CLASS, intermediary, mapped));
+        mapTable().put(MappingsEntryType.CLASS, intermediary, mapped);
     }
     
     @Override
     public void mapMethod(String intermediary, String mapped) {
         Objects.requireNonNull(mapped, "mapped is null");
-        add(new MapTransformation(MappingsEntryType.METHOD, intermediary, mapped));
+        mapTable().put(MappingsEntryType.METHOD, intermediary, mapped);
     }
     
     @Override
     public void mapField(String intermediary, String mapped) {
         Objects.requireNonNull(mapped, "mapped is null");
-        add(new MapTransformation(MappingsEntryType.FIELD, intermediary, mapped));
+        mapTable().put(MappingsEntryType.FIELD, intermediary, mapped);
+    }
+    
+    @Override
+    public void mapTable(Path file) {
+        Objects.requireNonNull(file, "file is null");
+        try {
+            mapTable().read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read mappings from " + file, e);
+        }
+    }
+    
+    /**
+     * Returns the table of the consecutive map calls, so that they are applied in a single lookup per entry.
+     */
+    private MapTableTransformation mapTable() {
+        if (mapTable == null || transformations.isEmpty() || transformations.get(transformations.size() - 1) != mapTable) {
+            mapTable = new MapTableTransformation();
+            add(mapTable);
+        }
+        return mapTable;
     }
     
     @Override
     public void overrideOnly(Mappings mappings, MappingOverridePredicate predicate) {
-        // TODO
+        Objects.requireNonNull(mappings, "mappings is null");
+        Objects.requireNonNull(predicate, "predicate is null");
+        add(new OverrideTransformation(mappings, predicate::test, epic + predicate.getClass().toString()));
     }
     
     @Override
@@ -83,28 +114,11 @@ public class MappingsTransformationBuilderImpl implements MappingsTransformation
         Objects.requireNonNull(regex, "regex is null");
         Objects.requireNonNull(replacement, "replacement is null");
         int id = MappingsUtils.getTypeId(typePredicate);
-        Pattern pattern = Pattern.compile(regex);
-        add(new SimpleMappingsTransformation() {
-            @Override
-            public void handle(MutableMapped entry) {
-                if (entry.isMapped()) {
-                    Matcher matcher = pattern.matcher(entry.getMapped());
-                    if (matcher.matches()) {
-                        entry.setMapped(matcher.replaceAll(replacement));
-                    }
-                }
-            }
-            
-            @Override
-            public boolean handleType(MappingsEntryType type) {
-                return typePredicate.test(type);
-            }
-            
-            @Override
-            public String uuid() {
-                return id + "\0" + regex + "\0" + replacement;
-            }
-        });
+        if (replaceRules == null || transformations.isEmpty() || transformations.get(transformations.size() - 1) != replaceRules) {
+            replaceRules = new RegexReplaceTransformation();
+            add(replaceRules);
+        }
+        replaceRules.add(id, regex, replacement);
     }
     
     @Override